@@ -0,0 +1,21 @@
+package com.example.entrevista_payment.benchmark;
+
+final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {
+    }
+
+    static String orderJson(int itemCount) {
+        StringBuilder json = new StringBuilder(64 + itemCount * 48)
+                .append("{\"orderId\":\"order-").append(itemCount)
+                .append("\",\"customerId\":\"customer-42\",\"items\":[");
+        for (int i = 0; i < itemCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"productId\":\"product-").append(i)
+                    .append("\",\"quantity\":").append(i % 5 + 1).append('}');
+        }
+        return json.append("],\"totalAmount\":").append(itemCount * 19.99).append('}').toString();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.entrevista_payment.benchmark;
+
+import com.example.entrevista_payment.domain.model.AuditLog;
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.service.PaymentDomainService;
+import com.example.entrevista_payment.infrastructure.adapter.out.blob.AuditCodec;
+import com.example.entrevista_payment.infrastructure.adapter.out.blob.AuditFormat;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.AuditLogDto;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.OrderDto;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.TransactionEntity;
+import com.example.entrevista_payment.infrastructure.adapter.out.queue.DtoOrderPayloadParser;
+import com.example.entrevista_payment.infrastructure.adapter.out.queue.StreamingOrderPayloadParser;
+import com.example.entrevista_payment.infrastructure.config.BeanConfiguration;
+import com.example.entrevista_payment.infrastructure.mapper.AuditLogMapper;
+import com.example.entrevista_payment.infrastructure.mapper.OrderMapper;
+import com.example.entrevista_payment.infrastructure.mapper.TransactionMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trabajo de CPU por mensaje, de la cola a la auditoria. Ejecutar con -prof gc para ver
+ * gc.alloc.rate.norm (bytes por operacion) junto al throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentPipelineBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int itemCount;
+
+    private ObjectMapper objectMapper;
+    private OrderMapper orderMapper;
+    private TransactionMapper transactionMapper;
+    private AuditLogMapper auditLogMapper;
+    private PaymentDomainService paymentDomainService;
+    private AuditCodec auditCodec;
+    private DtoOrderPayloadParser dtoParser;
+    private StreamingOrderPayloadParser streamingParser;
+
+    private String payload;
+    private OrderDto orderDto;
+    private Order order;
+    private Transaction transaction;
+    private TransactionEntity transactionEntity;
+    private AuditLog auditLog;
+    private AuditLogDto auditLogDto;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new BeanConfiguration().objectMapper();
+        orderMapper = new OrderMapper();
+        transactionMapper = new TransactionMapper();
+        auditLogMapper = new AuditLogMapper(orderMapper);
+        paymentDomainService = new PaymentDomainService();
+        auditCodec = new AuditCodec(AuditFormat.JSON, false, objectMapper);
+        dtoParser = new DtoOrderPayloadParser(objectMapper, orderMapper);
+        streamingParser = new StreamingOrderPayloadParser(objectMapper);
+
+        payload = BenchmarkPayloads.orderJson(itemCount);
+        orderDto = objectMapper.readValue(payload, OrderDto.class);
+        order = orderMapper.toDomain(orderDto);
+        transaction = paymentDomainService.createTransactionFromOrder(order);
+        transactionEntity = transactionMapper.toEntity(transaction);
+        auditLog = AuditLog.createSuccessAudit(order, transaction, Instant.now());
+        auditLogDto = auditLogMapper.toDto(auditLog);
+    }
+
+    @Benchmark
+    public OrderDto readOrderDto() throws Exception {
+        return objectMapper.readValue(payload, OrderDto.class);
+    }
+
+    @Benchmark
+    public Order mapOrderToDomain() {
+        return orderMapper.toDomain(orderDto);
+    }
+
+    @Benchmark
+    public Order parseOrderDto() throws Exception {
+        return dtoParser.parse(payload);
+    }
+
+    @Benchmark
+    public Order parseOrderStreaming() throws Exception {
+        return streamingParser.parse(payload);
+    }
+
+    @Benchmark
+    public Transaction createTransaction() {
+        return paymentDomainService.createTransactionFromOrder(order);
+    }
+
+    @Benchmark
+    public TransactionEntity transactionToEntity() {
+        return transactionMapper.toEntity(transaction);
+    }
+
+    @Benchmark
+    public Transaction transactionToDomain() {
+        return transactionMapper.toDomain(transactionEntity);
+    }
+
+    @Benchmark
+    public AuditLogDto auditToDto() {
+        return auditLogMapper.toDto(auditLog);
+    }
+
+    @Benchmark
+    public byte[] encodeAudit() throws Exception {
+        return auditCodec.encode(auditLogDto);
+    }
+
+    @Benchmark
+    public byte[] auditToDtoAndEncode() throws Exception {
+        return auditCodec.encode(auditLogMapper.toDto(auditLog));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.entrevista_payment.application.usecase;
+
+import com.example.entrevista_payment.domain.model.TransactionPage;
+import com.example.entrevista_payment.domain.port.in.ExportTransactionsUseCase;
+import com.example.entrevista_payment.domain.port.out.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+public class ExportTransactionsUseCaseImpl implements ExportTransactionsUseCase {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final TransactionRepository transactionRepository;
+
+    @Override
+    public Flux<TransactionPage> export(Instant from, Instant to, int pageSize, String continuationToken) {
+        if (!from.isBefore(to)) {
+            return Flux.error(new IllegalArgumentException("Rango vacio: from debe ser anterior a to"));
+        }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return Flux.error(new IllegalArgumentException("Page size entre 1 y " + MAX_PAGE_SIZE));
+        }
+        return transactionRepository.findPages(from, to, pageSize, continuationToken);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.entrevista_payment.application.usecase;
+
+import com.example.entrevista_payment.domain.model.CustomerTransactionPage;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.port.in.GetCustomerTransactionsUseCase;
+import com.example.entrevista_payment.domain.port.out.CustomerTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class GetCustomerTransactionsUseCaseImpl implements GetCustomerTransactionsUseCase {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final CustomerTransactionRepository customerTransactionRepository;
+
+    @Override
+    public Mono<CustomerTransactionPage> getTransactions(CustomerId customerId, int pageSize,
+                                                        String continuationToken) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return Mono.error(new IllegalArgumentException("Page size entre 1 y " + MAX_PAGE_SIZE));
+        }
+        return customerTransactionRepository.findByCustomer(customerId, pageSize, continuationToken);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.entrevista_payment.application.usecase;
+
+import com.example.entrevista_payment.domain.model.TransactionAggregate;
+import com.example.entrevista_payment.domain.model.valueobjects.AggregateGranularity;
+import com.example.entrevista_payment.domain.port.in.GetTransactionAggregatesUseCase;
+import com.example.entrevista_payment.domain.port.out.TransactionAggregateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+public class GetTransactionAggregatesUseCaseImpl implements GetTransactionAggregatesUseCase {
+
+    private static final long MAX_BUCKETS = 1440;
+
+    private final TransactionAggregateRepository transactionAggregateRepository;
+
+    @Override
+    public Flux<TransactionAggregate> getAggregates(AggregateGranularity granularity, Instant from, Instant to) {
+        Instant start = granularity.truncate(from);
+        if (!start.isBefore(to)) {
+            return Flux.error(new IllegalArgumentException("Rango vacio: from debe ser anterior a to"));
+        }
+        long buckets = Duration.between(start, to).dividedBy(granularity.getDuration()) + 1;
+        if (buckets > MAX_BUCKETS) {
+            return Flux.error(new IllegalArgumentException(
+                    "Rango de " + buckets + " buckets supera el maximo " + MAX_BUCKETS));
+        }
+        return transactionAggregateRepository.findAggregates(granularity, start, to);
+    }
+}
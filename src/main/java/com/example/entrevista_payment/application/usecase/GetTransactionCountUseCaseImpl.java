@@ -1,5 +1,6 @@
 package com.example.entrevista_payment.application.usecase;
 
+import com.example.entrevista_payment.domain.model.TransactionCount;
 import com.example.entrevista_payment.domain.port.in.GetTransactionCountUseCase;
 import com.example.entrevista_payment.domain.port.out.TransactionRepository;
 import lombok.RequiredArgsConstructor;
@@ -13,7 +14,7 @@ public class GetTransactionCountUseCaseImpl implements GetTransactionCountUseCas
     private final TransactionRepository transactionRepository;
 
     @Override
-    public Mono<Long> getTransactionCount() {
-        return transactionRepository.count();
+    public Mono<TransactionCount> getTransactionCount() {
+        return transactionRepository.currentCount();
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.entrevista_payment.application.usecase;
+
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import com.example.entrevista_payment.domain.port.in.GetTransactionUseCase;
+import com.example.entrevista_payment.domain.port.out.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class GetTransactionUseCaseImpl implements GetTransactionUseCase {
+
+    private final TransactionRepository transactionRepository;
+
+    @Override
+    public Mono<Transaction> getTransaction(OrderId orderId) {
+        return transactionRepository.findByOrderId(orderId);
+    }
+}
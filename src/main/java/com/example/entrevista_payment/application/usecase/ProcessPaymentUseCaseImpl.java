@@ -1,55 +1,170 @@
 package com.example.entrevista_payment.application.usecase;
 
+import com.example.entrevista_payment.domain.exception.InvalidOrderException;
 import com.example.entrevista_payment.domain.model.AuditLog;
 import com.example.entrevista_payment.domain.model.Order;
 import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
 import com.example.entrevista_payment.domain.port.in.ProcessPaymentUseCase;
 import com.example.entrevista_payment.domain.port.out.AuditRepository;
 import com.example.entrevista_payment.domain.port.out.TransactionRepository;
 import com.example.entrevista_payment.domain.service.PaymentDomainService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ProcessPaymentUseCaseImpl implements ProcessPaymentUseCase {
 
+    private static final int MAX_RETRIES = 3;
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(1);
+
     private final TransactionRepository transactionRepository;
     private final AuditRepository auditRepository;
     private final PaymentDomainService paymentDomainService;
+    private final MeterRegistry meterRegistry;
+    private final Timer processTimer;
+    private final Timer attemptTimer;
+    private final Counter retries;
+
+    public ProcessPaymentUseCaseImpl(TransactionRepository transactionRepository,
+                                     AuditRepository auditRepository,
+                                     PaymentDomainService paymentDomainService,
+                                     MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.auditRepository = auditRepository;
+        this.paymentDomainService = paymentDomainService;
+        this.meterRegistry = meterRegistry;
+        this.processTimer = Timer.builder("payment.process")
+                .description("Latencia de punta a punta de processPayment con reintentos (en bulk, desde el inicio del lote)")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.attemptTimer = Timer.builder("payment.process.attempt")
+                .description("Latencia de cada intento de persistir la transaction")
+                .register(meterRegistry);
+        this.retries = Counter.builder("payment.process.retries")
+                .description("Reintentos de processPayment")
+                .register(meterRegistry);
+    }
 
     @Override
     public Mono<Transaction> processPayment(Order order) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return attempt(order)
+                    .retryWhen(Retry.backoff(MAX_RETRIES, RETRY_BACKOFF)
+                            .filter(ProcessPaymentUseCaseImpl::isRetryable)
+                            .doBeforeRetry(signal -> {
+                                retries.increment();
+                                log.warn("Retry attempt #{} for order {}",
+                                        signal.totalRetries() + 1, order.getOrderId());
+                            }))
+                    .doOnSuccess(t -> log.info("Transaccion completada: {}", t.getId()))
+                    .doOnError(e -> log.error("Error en transaccion {}: {}",
+                            order.getOrderId(), e.getMessage()))
+                    .doFinally(signal -> sample.stop(processTimer));
+        });
+    }
+
+    private Mono<Transaction> attempt(Order order) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return Mono.fromCallable(() -> paymentDomainService.createTransactionFromOrder(order))
+                    .flatMap(transactionRepository::save)
+                    .doFinally(signal -> sample.stop(attemptTimer));
+        });
+    }
+
+    @Override
+    public Flux<PaymentResult> processPayments(List<Order> orders) {
+        return Flux.defer(() -> persistPayments(orders));
+    }
+
+    private Flux<PaymentResult> persistPayments(List<Order> orders) {
         Instant startTime = Instant.now();
 
-        return Mono.fromCallable(() -> paymentDomainService.createTransactionFromOrder(order))
-                .flatMap(transactionRepository::save)
-                .flatMap(transaction -> createAudit(order, transaction, startTime)
-                        .then(Mono.just(transaction)))
-                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
-                        .doBeforeRetry(signal ->
-                                log.warn("Retry attempt #{} for order {}",
-                                        signal.totalRetries() + 1, order.getOrderId())))
-                .doOnSuccess(t -> log.info("Transaccion completada: {}", t.getId()))
-                .doOnError(e -> log.error("Error en transaccion {}: {}",
-                        order.getOrderId(), e.getMessage()));
+        Map<OrderId, Order> ordersById = new LinkedHashMap<>();
+        List<Transaction> transactions = new ArrayList<>();
+        List<PaymentResult> rejected = new ArrayList<>();
+
+        for (Order order : orders) {
+            try {
+                transactions.add(paymentDomainService.createTransactionFromOrder(order));
+                ordersById.put(order.getOrderId(), order);
+            } catch (RuntimeException e) {
+                rejected.add(PaymentResult.failure(order, e));
+            }
+        }
+
+        Flux<PaymentResult> persisted = saveAll(transactions, 0)
+                .map(result -> {
+                    Order order = ordersById.get(result.getTransaction().getOrderId());
+                    if (!result.isSuccess()) {
+                        log.error("Error en transaccion {}: {}",
+                                order.getOrderId(), result.getError().getMessage());
+                        return PaymentResult.failure(order, result.getError());
+                    }
+                    Transaction transaction = result.getTransaction();
+                    log.info("Transaccion completada: {}", transaction.getId());
+                    return PaymentResult.success(order, transaction);
+                });
+
+        return Flux.fromIterable(rejected).concatWith(persisted)
+                .doOnNext(result -> processTimer.record(Duration.between(startTime, Instant.now())));
     }
 
-    private Mono<Void> createAudit(Order order, Transaction transaction, Instant startTime) {
+    // Mismo reintento que processPayment, pero solo para los items que fallaron en el bulk
+    private Flux<TransactionRepository.SaveResult> saveAll(List<Transaction> transactions, int attempt) {
+        return Flux.defer(() -> {
+            Instant attemptStart = Instant.now();
+            List<Transaction> failed = new ArrayList<>();
+
+            return transactionRepository.saveAll(Flux.fromIterable(transactions))
+                    .doOnNext(result -> attemptTimer.record(Duration.between(attemptStart, Instant.now())))
+                    .filter(result -> {
+                        if (result.isSuccess() || attempt >= MAX_RETRIES || !isRetryable(result.getError())) {
+                            return true;
+                        }
+                        synchronized (failed) {
+                            failed.add(result.getTransaction());
+                        }
+                        return false;
+                    })
+                    .concatWith(Flux.defer(() -> {
+                        if (failed.isEmpty()) {
+                            return Flux.empty();
+                        }
+                        retries.increment(failed.size());
+                        log.warn("Retry attempt #{} for {} orders del lote", attempt + 1, failed.size());
+                        return Mono.delay(RETRY_BACKOFF.multipliedBy(1L << attempt))
+                                .thenMany(saveAll(List.copyOf(failed), attempt + 1));
+                    }));
+        });
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        return !(error instanceof InvalidOrderException);
+    }
+
+    @Override
+    public Mono<Void> auditPayment(Order order, Transaction transaction, Instant startedAt) {
         return Mono.fromCallable(() ->
-                        AuditLog.createSuccessAudit(order, transaction, startTime))
+                        AuditLog.createSuccessAudit(order, transaction, startedAt))
                 .flatMap(auditRepository::save)
-                .onErrorResume(e -> {
-                    log.warn("No pudo crear auditoria: {}",
-                            transaction.getId());
-                    return Mono.empty();
-                });
+                .doOnError(e -> log.warn("No pudo crear auditoria: {}",
+                        transaction.getId()));
     }
 }
\ No newline at end of file
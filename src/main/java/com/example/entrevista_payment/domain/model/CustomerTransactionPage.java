@@ -0,0 +1,32 @@
+package com.example.entrevista_payment.domain.model;
+
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+
+import java.util.List;
+import java.util.Objects;
+
+public class CustomerTransactionPage {
+    private final CustomerId customerId;
+    private final long transactionCount;
+    private final Money totalAmount;
+    private final List<Transaction> transactions;
+    private final String continuationToken;
+
+    public CustomerTransactionPage(CustomerId customerId, long transactionCount, Money totalAmount,
+                                   List<Transaction> transactions, String continuationToken) {
+        Objects.requireNonNull(customerId, "Customer ID es requerida");
+        Objects.requireNonNull(totalAmount, "Total amount es requerida");
+        this.customerId = customerId;
+        this.transactionCount = transactionCount;
+        this.totalAmount = totalAmount;
+        this.transactions = List.copyOf(transactions);
+        this.continuationToken = continuationToken;
+    }
+
+    public CustomerId getCustomerId() { return customerId; }
+    public long getTransactionCount() { return transactionCount; }
+    public Money getTotalAmount() { return totalAmount; }
+    public List<Transaction> getTransactions() { return transactions; }
+    public String getContinuationToken() { return continuationToken; }
+}
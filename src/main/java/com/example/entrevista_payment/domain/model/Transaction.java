@@ -4,7 +4,6 @@ import com.example.entrevista_payment.domain.model.valueobjects.*;
 
 import java.time.Instant;
 import java.util.Objects;
-import java.util.UUID;
 
 public class Transaction {
     private final TransactionId id;
@@ -27,7 +26,7 @@ public class Transaction {
 
     public static Transaction createFromOrder(Order order) {
         return new Builder()
-                .withId(new TransactionId(UUID.randomUUID().toString()))
+                .withId(TransactionId.forOrder(order.getOrderId()))
                 .withOrderId(order.getOrderId())
                 .withCustomerId(order.getCustomerId())
                 .withAmount(order.getTotalAmount())
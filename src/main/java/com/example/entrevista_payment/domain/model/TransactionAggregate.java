@@ -0,0 +1,40 @@
+package com.example.entrevista_payment.domain.model;
+
+import com.example.entrevista_payment.domain.model.valueobjects.AggregateGranularity;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.model.valueobjects.TransactionStatus;
+
+import java.time.Instant;
+import java.util.Objects;
+
+public class TransactionAggregate {
+    private final AggregateGranularity granularity;
+    private final Instant bucketStart;
+    private final TransactionStatus status;
+    private final long count;
+    private final Money amount;
+
+    public TransactionAggregate(AggregateGranularity granularity, Instant bucketStart, TransactionStatus status,
+                                long count, Money amount) {
+        Objects.requireNonNull(granularity, "Granularity es requerida");
+        Objects.requireNonNull(bucketStart, "Bucket start es requerida");
+        Objects.requireNonNull(status, "Status es requerida");
+        Objects.requireNonNull(amount, "Amount es requerida");
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.status = status;
+        this.count = count;
+        this.amount = amount;
+    }
+
+    public AggregateGranularity getGranularity() { return granularity; }
+    public Instant getBucketStart() { return bucketStart; }
+    public TransactionStatus getStatus() { return status; }
+    public long getCount() { return count; }
+    public Money getAmount() { return amount; }
+
+    public TransactionAggregate merge(TransactionAggregate other) {
+        return new TransactionAggregate(granularity, bucketStart, status,
+                count + other.count, amount.add(other.amount));
+    }
+}
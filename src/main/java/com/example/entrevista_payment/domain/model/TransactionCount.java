@@ -0,0 +1,23 @@
+package com.example.entrevista_payment.domain.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+public class TransactionCount {
+    private final long count;
+    private final Instant reconciledAt;
+
+    public TransactionCount(long count, Instant reconciledAt) {
+        Objects.requireNonNull(reconciledAt, "Reconciled at es requerida");
+        this.count = count;
+        this.reconciledAt = reconciledAt;
+    }
+
+    public long getCount() { return count; }
+    public Instant getReconciledAt() { return reconciledAt; }
+
+    public Duration getStaleness(Instant now) {
+        return Duration.between(reconciledAt, now);
+    }
+}
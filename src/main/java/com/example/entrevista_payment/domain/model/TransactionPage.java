@@ -0,0 +1,16 @@
+package com.example.entrevista_payment.domain.model;
+
+import java.util.List;
+
+public class TransactionPage {
+    private final List<Transaction> transactions;
+    private final String continuationToken;
+
+    public TransactionPage(List<Transaction> transactions, String continuationToken) {
+        this.transactions = List.copyOf(transactions);
+        this.continuationToken = continuationToken;
+    }
+
+    public List<Transaction> getTransactions() { return transactions; }
+    public String getContinuationToken() { return continuationToken; }
+}
@@ -0,0 +1,32 @@
+package com.example.entrevista_payment.domain.model.valueobjects;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+public enum AggregateGranularity {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    AggregateGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public Duration getDuration() { return unit.getDuration(); }
+
+    public Instant truncate(Instant instant) {
+        return instant.truncatedTo(unit);
+    }
+
+    public static AggregateGranularity fromValue(String value) {
+        for (AggregateGranularity granularity : values()) {
+            if (granularity.name().equalsIgnoreCase(value)) {
+                return granularity;
+            }
+        }
+        throw new IllegalArgumentException("Granularity invalida: " + value);
+    }
+}
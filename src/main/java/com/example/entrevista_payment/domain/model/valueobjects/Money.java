@@ -2,31 +2,48 @@ package com.example.entrevista_payment.domain.model.valueobjects;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Objects;
 
 public class Money {
-    private final BigDecimal amount;
+    private final long minorUnits;
     private static final int SCALE = 2;
 
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
     public Money(BigDecimal amount) {
-        if (amount == null) {
-            throw new IllegalArgumentException("Amount no puede ser null");
-        }
-        this.amount = amount.setScale(SCALE, RoundingMode.HALF_UP);
+        this(toMinorUnits(amount));
     }
 
     public Money(Double amount) {
-        this(BigDecimal.valueOf(amount));
+        this(amount == null ? null : BigDecimal.valueOf(amount));
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits);
     }
 
-    public BigDecimal getAmount() { return amount; }
+    public long getMinorUnits() { return minorUnits; }
+
+    public BigDecimal getAmount() { return BigDecimal.valueOf(minorUnits, SCALE); }
 
     public boolean isNegativeOrZero() {
-        return amount.compareTo(BigDecimal.ZERO) <= 0;
+        return minorUnits <= 0;
     }
 
     public Money add(Money other) {
-        return new Money(this.amount.add(other.amount));
+        return new Money(Math.addExact(this.minorUnits, other.minorUnits));
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount no puede ser null");
+        }
+        try {
+            return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount fuera de rango: " + amount);
+        }
     }
 
     @Override
@@ -34,16 +51,16 @@ public class Money {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Money money = (Money) o;
-        return Objects.equals(amount, money.amount);
+        return minorUnits == money.minorUnits;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(amount);
+        return Long.hashCode(minorUnits);
     }
 
     @Override
     public String toString() {
-        return amount.toString();
+        return getAmount().toString();
     }
 }
@@ -1,6 +1,8 @@
 package com.example.entrevista_payment.domain.model.valueobjects;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
+import java.util.UUID;
 
 public class TransactionId {
     private final String value;
@@ -12,6 +14,11 @@ public class TransactionId {
         this.value = value;
     }
 
+    public static TransactionId forOrder(OrderId orderId) {
+        byte[] seed = ("payment:" + orderId.getValue()).getBytes(StandardCharsets.UTF_8);
+        return new TransactionId(UUID.nameUUIDFromBytes(seed).toString());
+    }
+
     public String getValue() { return value; }
 
     @Override
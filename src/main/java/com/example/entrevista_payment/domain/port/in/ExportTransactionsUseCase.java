@@ -0,0 +1,10 @@
+package com.example.entrevista_payment.domain.port.in;
+
+import com.example.entrevista_payment.domain.model.TransactionPage;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+public interface ExportTransactionsUseCase {
+    Flux<TransactionPage> export(Instant from, Instant to, int pageSize, String continuationToken);
+}
@@ -0,0 +1,11 @@
+package com.example.entrevista_payment.domain.port.in;
+
+import com.example.entrevista_payment.domain.model.TransactionAggregate;
+import com.example.entrevista_payment.domain.model.valueobjects.AggregateGranularity;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+public interface GetTransactionAggregatesUseCase {
+    Flux<TransactionAggregate> getAggregates(AggregateGranularity granularity, Instant from, Instant to);
+}
@@ -1,7 +1,8 @@
 package com.example.entrevista_payment.domain.port.in;
 
+import com.example.entrevista_payment.domain.model.TransactionCount;
 import reactor.core.publisher.Mono;
 
 public interface GetTransactionCountUseCase {
-    Mono<Long> getTransactionCount();
+    Mono<TransactionCount> getTransactionCount();
 }
\ No newline at end of file
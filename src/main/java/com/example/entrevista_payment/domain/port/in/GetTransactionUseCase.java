@@ -0,0 +1,9 @@
+package com.example.entrevista_payment.domain.port.in;
+
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import reactor.core.publisher.Mono;
+
+public interface GetTransactionUseCase {
+    Mono<Transaction> getTransaction(OrderId orderId);
+}
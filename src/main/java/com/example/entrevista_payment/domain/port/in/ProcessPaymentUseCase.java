@@ -2,8 +2,39 @@ package com.example.entrevista_payment.domain.port.in;
 
 import com.example.entrevista_payment.domain.model.Transaction;
 import com.example.entrevista_payment.domain.model.Order;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.List;
+
 public interface ProcessPaymentUseCase {
     Mono<Transaction> processPayment(Order order);
-}
\ No newline at end of file
+    Flux<PaymentResult> processPayments(List<Order> orders);
+    Mono<Void> auditPayment(Order order, Transaction transaction, Instant startedAt);
+
+    final class PaymentResult {
+        private final Order order;
+        private final Transaction transaction;
+        private final Throwable error;
+
+        private PaymentResult(Order order, Transaction transaction, Throwable error) {
+            this.order = order;
+            this.transaction = transaction;
+            this.error = error;
+        }
+
+        public static PaymentResult success(Order order, Transaction transaction) {
+            return new PaymentResult(order, transaction, null);
+        }
+
+        public static PaymentResult failure(Order order, Throwable error) {
+            return new PaymentResult(order, null, error);
+        }
+
+        public Order getOrder() { return order; }
+        public Transaction getTransaction() { return transaction; }
+        public Throwable getError() { return error; }
+        public boolean isSuccess() { return error == null; }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.entrevista_payment.domain.port.out;
+
+import com.example.entrevista_payment.domain.model.CustomerTransactionPage;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import reactor.core.publisher.Mono;
+
+public interface CustomerTransactionRepository {
+    Mono<CustomerTransactionPage> findByCustomer(CustomerId customerId, int pageSize, String continuationToken);
+}
@@ -1,16 +1,44 @@
 package com.example.entrevista_payment.domain.port.out;
 
 import com.example.entrevista_payment.domain.model.Order;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface OrderQueuePort {
-    Flux<QueueMessage> receiveMessages();
+    Mono<ReceivedMessages> receiveMessages();
     Mono<Void> deleteMessage(QueueMessage message);
+    Mono<Void> deadLetter(QueueMessage message, String reason);
+    Mono<Void> renewLease(QueueMessage message);
+    void release(QueueMessage message);
 
     interface QueueMessage {
         String getMessageId();
         String getPopReceipt();
         Order getOrder();
     }
-}
\ No newline at end of file
+
+    /**
+     * Resultado de una lectura: received cuenta lo que devolvio la cola, incluidos los mensajes
+     * que se movieron a poison; full indica que la lectura vino llena y conviene leer de nuevo.
+     */
+    class ReceivedMessages {
+        private static final ReceivedMessages EMPTY = new ReceivedMessages(List.of(), 0, false);
+
+        private final List<QueueMessage> messages;
+        private final int received;
+        private final boolean full;
+
+        public ReceivedMessages(List<? extends QueueMessage> messages, int received, boolean full) {
+            this.messages = List.copyOf(messages);
+            this.received = received;
+            this.full = full;
+        }
+
+        public static ReceivedMessages empty() { return EMPTY; }
+
+        public List<QueueMessage> getMessages() { return messages; }
+        public int getReceived() { return received; }
+        public boolean isFull() { return full; }
+    }
+}
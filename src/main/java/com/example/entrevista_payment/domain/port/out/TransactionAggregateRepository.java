@@ -0,0 +1,11 @@
+package com.example.entrevista_payment.domain.port.out;
+
+import com.example.entrevista_payment.domain.model.TransactionAggregate;
+import com.example.entrevista_payment.domain.model.valueobjects.AggregateGranularity;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+public interface TransactionAggregateRepository {
+    Flux<TransactionAggregate> findAggregates(AggregateGranularity granularity, Instant from, Instant to);
+}
@@ -1,9 +1,41 @@
 package com.example.entrevista_payment.domain.port.out;
 
 import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.TransactionCount;
+import com.example.entrevista_payment.domain.model.TransactionPage;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+
 public interface TransactionRepository {
     Mono<Transaction> save(Transaction transaction);
+    Flux<SaveResult> saveAll(Flux<Transaction> transactions);
+    Mono<Transaction> findByOrderId(OrderId orderId);
+    Flux<TransactionPage> findPages(Instant from, Instant to, int pageSize, String continuationToken);
     Mono<Long> count();
-}
\ No newline at end of file
+    Mono<TransactionCount> currentCount();
+
+    final class SaveResult {
+        private final Transaction transaction;
+        private final Throwable error;
+
+        private SaveResult(Transaction transaction, Throwable error) {
+            this.transaction = transaction;
+            this.error = error;
+        }
+
+        public static SaveResult success(Transaction transaction) {
+            return new SaveResult(transaction, null);
+        }
+
+        public static SaveResult failure(Transaction transaction, Throwable error) {
+            return new SaveResult(transaction, error);
+        }
+
+        public Transaction getTransaction() { return transaction; }
+        public Throwable getError() { return error; }
+        public boolean isSuccess() { return error == null; }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.loadtest;
+
+import com.example.entrevista_payment.infrastructure.adapter.out.memory.InMemoryOrderQueueAdapter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Encola ordenes sinteticas en la cola en memoria y reporta ordenes/s y percentiles
+ * de latencia enqueue → delete mientras el pipeline real las procesa.
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+public class LoadTestDriver {
+
+    private final InMemoryOrderQueueAdapter queue;
+    private final long totalOrders;
+    private final int maxBacklog;
+    private final int customers;
+    private final double invalidRate;
+    private final Duration reportInterval;
+
+    private volatile boolean running = true;
+    private Thread producer;
+    private Disposable reporter;
+    private long startNanos;
+    private long lastCompleted;
+    private long lastReportNanos;
+
+    public LoadTestDriver(
+            InMemoryOrderQueueAdapter queue,
+            @Value("${loadtest.orders:1000000}") long totalOrders,
+            @Value("${loadtest.max-backlog:2000}") int maxBacklog,
+            @Value("${loadtest.customers:10000}") int customers,
+            @Value("${loadtest.invalid-rate:0}") double invalidRate,
+            @Value("${loadtest.report-interval-ms:5000}") long reportIntervalMs) {
+        this.queue = queue;
+        this.totalOrders = totalOrders;
+        this.maxBacklog = maxBacklog;
+        this.customers = customers;
+        this.invalidRate = invalidRate;
+        this.reportInterval = Duration.ofMillis(reportIntervalMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Load test: {} ordenes, backlog maximo {}", totalOrders, maxBacklog);
+        startNanos = System.nanoTime();
+        lastReportNanos = startNanos;
+
+        producer = new Thread(this::produce, "loadtest-producer");
+        producer.setDaemon(true);
+        producer.start();
+
+        reporter = Flux.interval(reportInterval)
+                .subscribe(tick -> report());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (reporter != null) {
+            reporter.dispose();
+        }
+    }
+
+    private void produce() {
+        for (long i = 0; i < totalOrders && running; i++) {
+            while (queue.depth() >= maxBacklog && running) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            queue.enqueue(syntheticOrder(i));
+        }
+        log.info("Load test: {} ordenes encoladas", totalOrders);
+    }
+
+    private synchronized void report() {
+        long now = System.nanoTime();
+        long completed = queue.getCompleted();
+        long finished = completed + queue.getPoisoned();
+        double interval = (completed - lastCompleted) / seconds(now - lastReportNanos);
+        double overall = completed / seconds(now - startNanos);
+        lastCompleted = completed;
+        lastReportNanos = now;
+
+        Timer latency = queue.getEndToEnd();
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+        log.info("Load test: {}/{} ordenes, {} ord/s (promedio {} ord/s), backlog {}, poison {}, {}",
+                completed, totalOrders, Math.round(interval), Math.round(overall),
+                queue.depth(), queue.getPoisoned(), percentiles(snapshot));
+
+        if (finished >= totalOrders) {
+            log.info("Load test terminado en {} s: {} ord/s sostenidas, {}",
+                    Math.round(seconds(now - startNanos)), Math.round(overall), percentiles(snapshot));
+            reporter.dispose();
+        }
+    }
+
+    private String syntheticOrder(long sequence) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (invalidRate > 0 && random.nextDouble() < invalidRate) {
+            return "{\"orderId\":\"LT-" + sequence + "\",\"items\":[]}";
+        }
+        int quantity = 1 + random.nextInt(5);
+        long cents = 100 + random.nextLong(100_000);
+        return "{\"orderId\":\"LT-" + sequence + "\","
+                + "\"customerId\":\"CUST-" + random.nextInt(customers) + "\","
+                + "\"items\":[{\"productId\":\"PROD-" + random.nextInt(1000) + "\",\"quantity\":" + quantity + "}],"
+                + "\"totalAmount\":" + (cents / 100) + "." + String.format("%02d", cents % 100) + "}";
+    }
+
+    private static String percentiles(HistogramSnapshot snapshot) {
+        StringBuilder result = new StringBuilder();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (!result.isEmpty()) {
+                result.append(' ');
+            }
+            result.append(String.format("p%s=%.1fms", label(value.percentile()),
+                    value.value(TimeUnit.MILLISECONDS)));
+        }
+        return result.toString();
+    }
+
+    private static String label(double percentile) {
+        return BigDecimal.valueOf(percentile).movePointRight(2).stripTrailingZeros()
+                .toPlainString().replace(".", "");
+    }
+
+    private static double seconds(long nanos) {
+        return Math.max(nanos, 1) / 1_000_000_000.0;
+    }
+}
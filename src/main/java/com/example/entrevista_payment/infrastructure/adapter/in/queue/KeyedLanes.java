@@ -0,0 +1,106 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.queue;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Reparte elementos en lanes por hash de clave: orden FIFO dentro de cada lane y paralelismo
+ * entre lanes. Cada lane tiene su propia cola acotada a queueDepth, contando lo que esta en
+ * proceso, asi una clave caliente frena la entrada pero no ocupa el buffer de las demas lanes.
+ * Cada elemento debe producir exactamente un resultado; al emitirlo se libera su lugar.
+ */
+final class KeyedLanes<T> {
+
+    private final int laneCount;
+    private final int queueDepth;
+    private final ToIntFunction<T> hash;
+
+    KeyedLanes(int laneCount, int queueDepth, ToIntFunction<T> hash) {
+        this.laneCount = laneCount;
+        this.queueDepth = queueDepth;
+        this.hash = hash;
+    }
+
+    <R> Flux<R> apply(Flux<T> input, Function<Flux<T>, Flux<R>> perLane) {
+        return Flux.defer(() -> {
+            List<Lane<T>> lanes = IntStream.range(0, laneCount)
+                    .mapToObj(i -> new Lane<T>(queueDepth))
+                    .toList();
+
+            Mono<R> dispatch = input
+                    .concatMap(item -> lanes.get(Math.floorMod(hash.applyAsInt(item), laneCount)).offer(item))
+                    .then(Mono.fromRunnable(() -> lanes.forEach(Lane::complete)));
+
+            Flux<R> processed = Flux.fromIterable(lanes)
+                    .flatMap(lane -> perLane.apply(lane.items()).doOnNext(result -> lane.release()), laneCount);
+
+            return Flux.merge(processed, dispatch);
+        });
+    }
+
+    private static final class Lane<T> {
+        private final Sinks.Many<T> items = Sinks.many().unicast().onBackpressureBuffer();
+        private final int depth;
+        private int used;
+        private MonoSink<Boolean> waiter;
+
+        private Lane(int depth) {
+            this.depth = depth;
+        }
+
+        // Solo hay un despachador (concatMap), asi que como mucho un offer espera lugar
+        private Mono<Void> offer(T item) {
+            return Mono.<Boolean>create(sink -> {
+                        boolean accepted;
+                        synchronized (this) {
+                            accepted = used < depth;
+                            if (accepted) {
+                                used++;
+                            } else {
+                                waiter = sink;
+                                sink.onCancel(() -> {
+                                    synchronized (this) {
+                                        waiter = null;
+                                    }
+                                });
+                            }
+                        }
+                        if (accepted) {
+                            sink.success(Boolean.TRUE);
+                        }
+                    })
+                    .doOnNext(accepted -> items.emitNext(item, Sinks.EmitFailureHandler.FAIL_FAST))
+                    .then();
+        }
+
+        private void release() {
+            MonoSink<Boolean> granted = null;
+            synchronized (this) {
+                used--;
+                if (waiter != null) {
+                    used++;
+                    granted = waiter;
+                    waiter = null;
+                }
+            }
+            if (granted != null) {
+                granted.success(Boolean.TRUE);
+            }
+        }
+
+        private void complete() {
+            items.emitComplete(Sinks.EmitFailureHandler.FAIL_FAST);
+        }
+
+        private Flux<T> items() {
+            return items.asFlux();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.queue;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Etapa del pipeline: buffer de entrada acotado a queueDepth y como mucho concurrency
+ * elementos en proceso. Publica queued, inflight y latency con tag stage.
+ */
+final class PipelineStage {
+
+    private final int concurrency;
+    private final int queueDepth;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer latency;
+
+    PipelineStage(String name, int concurrency, int queueDepth, MeterRegistry meterRegistry) {
+        this.concurrency = concurrency;
+        this.queueDepth = queueDepth;
+        Gauge.builder("payment.pipeline.stage.queued", queued, AtomicInteger::get)
+                .description("Elementos esperando en el buffer de la etapa")
+                .tag("stage", name)
+                .register(meterRegistry);
+        Gauge.builder("payment.pipeline.stage.inflight", inFlight, AtomicInteger::get)
+                .description("Elementos en proceso en la etapa")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.latency = Timer.builder("payment.pipeline.stage.latency")
+                .description("Latencia de procesar un elemento en la etapa")
+                .tag("stage", name)
+                .register(meterRegistry);
+    }
+
+    <T, R> Flux<R> apply(Flux<T> input, Function<T, Mono<R>> work) {
+        return input
+                .doOnNext(item -> enqueued())
+                .publishOn(Schedulers.immediate(), queueDepth)
+                .flatMap(item -> start(() -> work.apply(item)), concurrency);
+    }
+
+    // Buffer de salida de una etapa de origen: queued es lo producido que la siguiente etapa aun no tomo
+    <T> Flux<T> buffer(Flux<T> output) {
+        return output
+                .doOnNext(item -> enqueued())
+                .publishOn(Schedulers.immediate(), queueDepth)
+                .doOnNext(item -> queued.decrementAndGet());
+    }
+
+    void enqueued() {
+        queued.incrementAndGet();
+    }
+
+    <R> Mono<R> start(Supplier<Mono<R>> work) {
+        return Mono.defer(() -> {
+            queued.decrementAndGet();
+            return run(work);
+        });
+    }
+
+    // Trabajo que no paso por el buffer de la etapa, como una lectura de la etapa de origen
+    <R> Mono<R> run(Supplier<Mono<R>> work) {
+        return Mono.defer(() -> {
+            inFlight.incrementAndGet();
+            long startNanos = System.nanoTime();
+            Runnable done = () -> {
+                inFlight.decrementAndGet();
+                latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            };
+            // Antes de propagar el fin, asi las metricas ya cuadran cuando la siguiente etapa lo ve
+            return work.get()
+                    .doOnTerminate(done)
+                    .doOnCancel(done);
+        });
+    }
+
+    // Un lote de size elementos que ya se contaron con enqueued(); latency se mide por lote
+    <R> Flux<R> startBatch(int size, Supplier<Flux<R>> work) {
+        return Flux.defer(() -> {
+            queued.addAndGet(-size);
+            inFlight.addAndGet(size);
+            long startNanos = System.nanoTime();
+            Runnable done = () -> {
+                inFlight.addAndGet(-size);
+                latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            };
+            return work.get()
+                    .doOnTerminate(done)
+                    .doOnCancel(done);
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.queue;
+
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.port.out.OrderQueuePort;
+
+import java.time.Instant;
+
+final class ProcessedMessage {
+    private final OrderQueuePort.QueueMessage message;
+    private final Transaction transaction;
+    private final Throwable error;
+    private final Instant startedAt;
+
+    private ProcessedMessage(OrderQueuePort.QueueMessage message, Transaction transaction, Throwable error,
+                             Instant startedAt) {
+        this.message = message;
+        this.transaction = transaction;
+        this.error = error;
+        this.startedAt = startedAt;
+    }
+
+    static ProcessedMessage persisted(OrderQueuePort.QueueMessage message, Transaction transaction,
+                                      Instant startedAt) {
+        return new ProcessedMessage(message, transaction, null, startedAt);
+    }
+
+    static ProcessedMessage failed(OrderQueuePort.QueueMessage message, Throwable error, Instant startedAt) {
+        return new ProcessedMessage(message, null, error, startedAt);
+    }
+
+    OrderQueuePort.QueueMessage getMessage() { return message; }
+    Transaction getTransaction() { return transaction; }
+    Throwable getError() { return error; }
+    Instant getStartedAt() { return startedAt; }
+    boolean isSuccess() { return error == null; }
+}
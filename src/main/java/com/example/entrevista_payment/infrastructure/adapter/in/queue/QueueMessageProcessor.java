@@ -1,16 +1,33 @@
 package com.example.entrevista_payment.infrastructure.adapter.in.queue;
 
+import com.example.entrevista_payment.domain.exception.InvalidOrderException;
+import com.example.entrevista_payment.domain.exception.PaymentProcessingException;
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
 import com.example.entrevista_payment.domain.port.in.ProcessPaymentUseCase;
 import com.example.entrevista_payment.domain.port.out.OrderQueuePort;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.CosmosConcurrencyLimiter;
+import com.example.entrevista_payment.infrastructure.config.Backoff;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
@@ -19,17 +36,73 @@ public class QueueMessageProcessor {
 
     private final OrderQueuePort orderQueuePort;
     private final ProcessPaymentUseCase processPaymentUseCase;
+    private final CosmosConcurrencyLimiter concurrencyLimiter;
+    private final Scheduler blockingScheduler;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${payment.processor.mode:adaptive}")
+    private String mode;
 
     @Value("${payment.processor.polling-interval-ms}")
     private long pollingInterval;
 
+    @Value("${payment.processor.min-backoff-ms:100}")
+    private long minBackoff;
+
+    @Value("${payment.processor.max-backoff-ms:15000}")
+    private long maxBackoff;
+
+    @Value("${payment.pipeline.receive.concurrency:1}")
+    private int receiveConcurrency;
+
+    @Value("${payment.pipeline.receive.queue-depth:64}")
+    private int receiveQueueDepth;
+
+    @Value("${payment.pipeline.persist.concurrency:8}")
+    private int laneCount;
+
+    @Value("${payment.pipeline.persist.queue-depth:64}")
+    private int laneQueueDepth;
+
+    @Value("${payment.processor.bulk.enabled:true}")
+    private boolean bulkEnabled;
+
+    @Value("${payment.processor.bulk.max-batch-size:32}")
+    private int bulkMaxBatchSize;
+
+    @Value("${payment.processor.bulk.max-wait-ms:200}")
+    private long bulkMaxWait;
+
+    @Value("${payment.pipeline.ack.concurrency:32}")
+    private int ackConcurrency;
+
+    @Value("${payment.pipeline.ack.queue-depth:64}")
+    private int ackQueueDepth;
+
+    private PipelineStage receiveStage;
+    private PipelineStage persistStage;
+    private PipelineStage ackStage;
+    private Disposable subscription;
+
     @PostConstruct
     public void startProcessing() {
-        log.info("Payment - procesando...");
+        log.info("Payment - procesando (modo {})...", mode);
+
+        receiveStage = new PipelineStage("receive", receiveConcurrency, receiveQueueDepth, meterRegistry);
+        persistStage = new PipelineStage("persist", laneCount, laneCount * laneQueueDepth, meterRegistry);
+        ackStage = new PipelineStage("ack", ackConcurrency, ackQueueDepth, meterRegistry);
+
+        // Cada lector es un bucle de lecturas con su propio backoff
+        Flux<OrderQueuePort.QueueMessage> messages = receiveStage.buffer(Flux.range(0, receiveConcurrency)
+                .flatMap(reader -> "fixed".equalsIgnoreCase(mode) ? pollingMessages() : adaptiveMessages(),
+                        receiveConcurrency, 1));
 
-        Flux.interval(Duration.ofMillis(pollingInterval))
-                .flatMap(tick -> processQueueMessages())
-                .subscribeOn(Schedulers.boundedElastic())
+        Flux<ProcessedMessage> persisted = bulkEnabled
+                ? persistInBatches(messages)
+                : persistInLanes(messages);
+
+        subscription = ackStage.apply(persisted, this::ack)
+                .subscribeOn(blockingScheduler)
                 .subscribe(
                         result -> {},
                         error -> log.error("Error en proceso: {}", error.getMessage()),
@@ -37,19 +110,162 @@ public class QueueMessageProcessor {
                 );
     }
 
-    private Flux<Void> processQueueMessages() {
-        return orderQueuePort.receiveMessages()
-                .flatMap(message -> {
-                    log.info("Procesando message de cola: {}", message.getMessageId());
+    // Un ack cortado no borra su mensaje: vuelve a la cola y se reprocesa (la escritura es idempotente)
+    @PreDestroy
+    public void stopProcessing() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Flux<OrderQueuePort.QueueMessage> pollingMessages() {
+        return Flux.interval(Duration.ofMillis(pollingInterval))
+                .concatMap(tick -> receiveWithinLimit()
+                        .flatMapIterable(OrderQueuePort.ReceivedMessages::getMessages)
+                        .doOnComplete(() -> log.debug("MSM batch en queu")));
+    }
+
+    private Flux<OrderQueuePort.QueueMessage> adaptiveMessages() {
+        Backoff backoff = new Backoff(Duration.ofMillis(minBackoff), Duration.ofMillis(maxBackoff));
+
+        return Flux.defer(() -> receiveWithinLimit()
+                        .flatMapMany(received -> Flux.fromIterable(received.getMessages())
+                                .concatWith(pauseAfter(received, backoff))))
+                .repeat();
+    }
+
+    // Solo un lote lleno indica que quedan mensajes; uno parcial espera el minimo y uno vacio crece
+    private Mono<OrderQueuePort.QueueMessage> pauseAfter(OrderQueuePort.ReceivedMessages received,
+                                                         Backoff backoff) {
+        if (received.isFull()) {
+            backoff.reset();
+            return Mono.empty();
+        }
+        Duration delay;
+        if (received.getReceived() > 0) {
+            backoff.reset();
+            delay = Duration.ofMillis(minBackoff);
+        } else {
+            delay = backoff.next();
+            log.debug("Queue vacia, siguiente lectura en {} ms", delay.toMillis());
+        }
+        return Mono.delay(delay).then(Mono.empty());
+    }
+
+    private Mono<OrderQueuePort.ReceivedMessages> receiveWithinLimit() {
+        return concurrencyLimiter.awaitCapacity()
+                .then(receiveStage.run(orderQueuePort::receiveMessages));
+    }
+
+    private Flux<ProcessedMessage> persistInLanes(Flux<OrderQueuePort.QueueMessage> messages) {
+        return lanes().apply(messages.doOnNext(message -> persistStage.enqueued()),
+                lane -> lane.concatMap(message -> persistStage.start(() -> persist(message))));
+    }
+
+    private KeyedLanes<OrderQueuePort.QueueMessage> lanes() {
+        return new KeyedLanes<>(laneCount, laneQueueDepth,
+                message -> message.getOrder().getCustomerId().hashCode());
+    }
+
+    private Mono<ProcessedMessage> persist(OrderQueuePort.QueueMessage message) {
+        log.info("Procesando message de cola: {}", message.getMessageId());
+        Instant startedAt = Instant.now();
+
+        return processPaymentUseCase.processPayment(message.getOrder())
+                .map(transaction -> ProcessedMessage.persisted(message, transaction, startedAt))
+                .onErrorResume(e -> Mono.just(ProcessedMessage.failed(message, e, startedAt)));
+    }
+
+    // Cada lane arma sus propios lotes y los persiste de a uno, asi se mantiene el orden por cliente
+    private Flux<ProcessedMessage> persistInBatches(Flux<OrderQueuePort.QueueMessage> messages) {
+        return lanes().apply(messages.doOnNext(message -> persistStage.enqueued()),
+                lane -> lane.bufferTimeout(Math.min(bulkMaxBatchSize, laneQueueDepth), Duration.ofMillis(bulkMaxWait), true)
+                        .concatMap(batch -> Flux.fromIterable(waves(batch))
+                                .concatMap(wave -> persistStage.startBatch(wave.size(), () -> persistBatch(wave)))));
+    }
 
-                    return processPaymentUseCase.processPayment(message.getOrder())
-                            .then(orderQueuePort.deleteMessage(message))
-                            .onErrorResume(e -> {
-                                log.error("Error procesando order, msm en queue: {}",
-                                        e.getMessage());
-                                return Flux.empty().then();
-                            });
+    // Separa el lote en tandas con un solo mensaje por cliente: el bulk no ordena entre operaciones
+    private static List<List<OrderQueuePort.QueueMessage>> waves(List<OrderQueuePort.QueueMessage> batch) {
+        List<List<OrderQueuePort.QueueMessage>> waves = new ArrayList<>();
+        Map<CustomerId, Integer> seen = new HashMap<>();
+        for (OrderQueuePort.QueueMessage message : batch) {
+            int wave = seen.merge(message.getOrder().getCustomerId(), 1, Integer::sum) - 1;
+            if (wave == waves.size()) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(wave).add(message);
+        }
+        return waves;
+    }
+
+    private Flux<ProcessedMessage> persistBatch(List<OrderQueuePort.QueueMessage> batch) {
+        log.info("Procesando lote de {} mensajes", batch.size());
+        Instant startedAt = Instant.now();
+
+        Map<OrderId, List<OrderQueuePort.QueueMessage>> messagesByOrder = new LinkedHashMap<>();
+        Map<OrderId, Order> orders = new LinkedHashMap<>();
+        for (OrderQueuePort.QueueMessage message : batch) {
+            Order order = message.getOrder();
+            messagesByOrder.computeIfAbsent(order.getOrderId(), id -> new ArrayList<>()).add(message);
+            orders.putIfAbsent(order.getOrderId(), order);
+        }
+
+        // Cada mensaje del lote emite exactamente un resultado: es lo que libera su lugar en la lane
+        return processPaymentUseCase.processPayments(List.copyOf(orders.values()))
+                .flatMapIterable(result -> {
+                    List<OrderQueuePort.QueueMessage> messages = messagesByOrder.remove(result.getOrder().getOrderId());
+                    if (messages == null) {
+                        log.error("Resultado de lote para una orden desconocida o repetida: {}",
+                                result.getOrder().getOrderId());
+                        return List.of();
+                    }
+                    return messages.stream()
+                            .map(message -> result.isSuccess()
+                                    ? ProcessedMessage.persisted(message, result.getTransaction(), startedAt)
+                                    : ProcessedMessage.failed(message, result.getError(), startedAt))
+                            .toList();
                 })
-                .doOnComplete(() -> log.debug("MSM batch en queu"));
+                .concatWith(Flux.defer(() -> failPending(messagesByOrder,
+                        new PaymentProcessingException("Lote sin resultado para la orden"), startedAt)))
+                .onErrorResume(e -> {
+                    log.error("Error procesando lote, msm en queue: {}", e.getMessage());
+                    return failPending(messagesByOrder, e, startedAt);
+                });
+    }
+
+    private static Flux<ProcessedMessage> failPending(Map<OrderId, List<OrderQueuePort.QueueMessage>> messagesByOrder,
+                                                      Throwable error, Instant startedAt) {
+        List<OrderQueuePort.QueueMessage> pending = messagesByOrder.values().stream()
+                .flatMap(List::stream)
+                .toList();
+        messagesByOrder.clear();
+        return Flux.fromIterable(pending)
+                .map(message -> ProcessedMessage.failed(message, error, startedAt));
+    }
+
+    private Mono<Void> ack(ProcessedMessage processed) {
+        OrderQueuePort.QueueMessage message = processed.getMessage();
+
+        // Solo se borra con la auditoria ya en el spool local; sin el mensaje no se podria reconstruir
+        if (processed.isSuccess()) {
+            return audit(processed)
+                    .then(Mono.defer(() -> orderQueuePort.deleteMessage(message)))
+                    .onErrorResume(e -> {
+                        log.error("Error guardando auditoria, msm en queue: {}", e.getMessage());
+                        orderQueuePort.release(message);
+                        return Mono.empty();
+                    });
+        }
+        if (processed.getError() instanceof InvalidOrderException) {
+            return orderQueuePort.deadLetter(message, processed.getError().getMessage());
+        }
+        log.error("Error procesando order, msm en queue: {}", processed.getError().getMessage());
+        orderQueuePort.release(message);
+        return Mono.empty();
+    }
+
+    private Mono<Void> audit(ProcessedMessage processed) {
+        return processPaymentUseCase.auditPayment(processed.getMessage().getOrder(),
+                processed.getTransaction(), processed.getStartedAt());
     }
 }
@@ -0,0 +1,39 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.web;
+
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.port.in.GetCustomerTransactionsUseCase;
+import com.example.entrevista_payment.infrastructure.adapter.in.web.dto.CustomerTransactionsResponse;
+import com.example.entrevista_payment.infrastructure.mapper.TransactionResponseMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/customers")
+@RequiredArgsConstructor
+public class CustomerController {
+
+    private final GetCustomerTransactionsUseCase getCustomerTransactionsUseCase;
+    private final TransactionResponseMapper responseMapper;
+
+    @GetMapping("/{customerId}/transactions")
+    public Mono<ResponseEntity<CustomerTransactionsResponse>> getTransactions(
+            @PathVariable String customerId,
+            @RequestParam(defaultValue = "50") int pageSize,
+            @RequestParam(required = false) String continuationToken) {
+        return getCustomerTransactionsUseCase.getTransactions(new CustomerId(customerId), pageSize, continuationToken)
+                .map(page -> ResponseEntity.ok(CustomerTransactionsResponse.builder()
+                        .customerId(page.getCustomerId().getValue())
+                        .transactionCount(page.getTransactionCount())
+                        .totalAmount(page.getTotalAmount().getAmount())
+                        .transactions(page.getTransactions().stream().map(responseMapper::toResponse).toList())
+                        .continuationToken(page.getContinuationToken())
+                        .build()))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+}
@@ -1,12 +1,15 @@
 package com.example.entrevista_payment.infrastructure.adapter.in.web;
 
 import com.example.entrevista_payment.domain.port.in.GetTransactionCountUseCase;
+import com.example.entrevista_payment.infrastructure.adapter.in.web.dto.TransactionCountResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+
 @RestController
 @RequestMapping("/api/health")
 @RequiredArgsConstructor
@@ -20,7 +23,12 @@ public class HealthController {
     }
 
     @GetMapping("/transactions/count")
-    public Mono<Long> getTransactionCount() {
-        return getTransactionCountUseCase.getTransactionCount();
+    public Mono<TransactionCountResponse> getTransactionCount() {
+        return getTransactionCountUseCase.getTransactionCount()
+                .map(count -> TransactionCountResponse.builder()
+                        .count(count.getCount())
+                        .reconciledAt(count.getReconciledAt())
+                        .stalenessMs(count.getStaleness(Instant.now()).toMillis())
+                        .build());
     }
-}
\ No newline at end of file
+}
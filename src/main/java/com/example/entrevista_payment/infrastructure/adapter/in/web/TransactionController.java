@@ -0,0 +1,61 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.web;
+
+import com.example.entrevista_payment.domain.model.TransactionAggregate;
+import com.example.entrevista_payment.domain.model.valueobjects.AggregateGranularity;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import com.example.entrevista_payment.domain.port.in.GetTransactionAggregatesUseCase;
+import com.example.entrevista_payment.domain.port.in.GetTransactionUseCase;
+import com.example.entrevista_payment.infrastructure.adapter.in.web.dto.TransactionAggregateResponse;
+import com.example.entrevista_payment.infrastructure.adapter.in.web.dto.TransactionResponse;
+import com.example.entrevista_payment.infrastructure.mapper.TransactionResponseMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/transactions")
+@RequiredArgsConstructor
+public class TransactionController {
+
+    private final GetTransactionUseCase getTransactionUseCase;
+    private final GetTransactionAggregatesUseCase getTransactionAggregatesUseCase;
+    private final TransactionResponseMapper responseMapper;
+
+    @GetMapping("/{orderId}")
+    public Mono<ResponseEntity<TransactionResponse>> getTransaction(@PathVariable String orderId) {
+        return getTransactionUseCase.getTransaction(new OrderId(orderId))
+                .map(transaction -> ResponseEntity.ok(responseMapper.toResponse(transaction)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/aggregates")
+    public Mono<ResponseEntity<List<TransactionAggregateResponse>>> getAggregates(
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam Instant from,
+            @RequestParam(required = false) Instant to) {
+        return Mono.fromSupplier(() -> AggregateGranularity.fromValue(granularity))
+                .flatMapMany(g -> getTransactionAggregatesUseCase.getAggregates(g, from, to != null ? to : Instant.now()))
+                .map(this::toResponse)
+                .collectList()
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    private TransactionAggregateResponse toResponse(TransactionAggregate aggregate) {
+        return TransactionAggregateResponse.builder()
+                .granularity(aggregate.getGranularity().name().toLowerCase())
+                .bucketStart(aggregate.getBucketStart())
+                .status(aggregate.getStatus().getValue())
+                .count(aggregate.getCount())
+                .amount(aggregate.getAmount().getAmount())
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.web;
+
+import com.example.entrevista_payment.domain.model.TransactionPage;
+import com.example.entrevista_payment.domain.port.in.ExportTransactionsUseCase;
+import com.example.entrevista_payment.infrastructure.adapter.in.web.dto.TransactionExportLine;
+import com.example.entrevista_payment.infrastructure.mapper.TransactionResponseMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Export de transactions por rango de timestamp. Despues de cada pagina se emite su
+ * continuationToken: para retomar se pasa como parametro (o Last-Event-ID en SSE).
+ * NDJSON es el formato por defecto; SSE solo si el Accept pide text/event-stream.
+ */
+@RestController
+@RequestMapping("/api/transactions/export")
+@RequiredArgsConstructor
+public class TransactionExportController {
+
+    private final ExportTransactionsUseCase exportTransactionsUseCase;
+    private final TransactionResponseMapper responseMapper;
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<?> export(
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam(defaultValue = "100") int pageSize,
+            @RequestParam(required = false) String continuationToken,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestHeader HttpHeaders headers) {
+        if (headers.getAccept().stream().anyMatch(MediaType.TEXT_EVENT_STREAM::equalsTypeAndSubtype)) {
+            return exportEvents(from, to, pageSize, continuationToken != null ? continuationToken : lastEventId);
+        }
+        return exportNdjson(from, to, pageSize, continuationToken);
+    }
+
+    private Flux<TransactionExportLine> exportNdjson(Instant from, Instant to, int pageSize,
+                                                     String continuationToken) {
+        return pages(from, to, pageSize, continuationToken)
+                .concatMap(page -> Flux.fromIterable(page.getTransactions())
+                        .map(transaction -> TransactionExportLine.builder()
+                                .transaction(responseMapper.toResponse(transaction))
+                                .build())
+                        .concatWith(Mono.justOrEmpty(page.getContinuationToken())
+                                .map(token -> TransactionExportLine.builder()
+                                        .continuationToken(token)
+                                        .build())));
+    }
+
+    private Flux<ServerSentEvent<Object>> exportEvents(Instant from, Instant to, int pageSize, String resumeFrom) {
+        return pages(from, to, pageSize, resumeFrom)
+                .concatMap(page -> Flux.fromIterable(page.getTransactions())
+                        .map(transaction -> ServerSentEvent.<Object>builder(responseMapper.toResponse(transaction))
+                                .event("transaction")
+                                .build())
+                        .concatWith(Mono.justOrEmpty(page.getContinuationToken())
+                                .map(token -> ServerSentEvent.<Object>builder(token)
+                                        .id(token)
+                                        .event("checkpoint")
+                                        .build())));
+    }
+
+    private Flux<TransactionPage> pages(Instant from, Instant to, int pageSize, String continuationToken) {
+        return exportTransactionsUseCase.export(from, to, pageSize, continuationToken)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+}
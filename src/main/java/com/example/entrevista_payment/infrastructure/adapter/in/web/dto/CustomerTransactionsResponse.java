@@ -0,0 +1,21 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerTransactionsResponse {
+    private String customerId;
+    private long transactionCount;
+    private BigDecimal totalAmount;
+    private List<TransactionResponse> transactions;
+    private String continuationToken;
+}
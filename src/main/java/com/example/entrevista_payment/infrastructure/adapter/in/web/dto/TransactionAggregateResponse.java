@@ -0,0 +1,21 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionAggregateResponse {
+    private String granularity;
+    private Instant bucketStart;
+    private String status;
+    private long count;
+    private BigDecimal amount;
+}
@@ -0,0 +1,18 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionCountResponse {
+    private long count;
+    private Instant reconciledAt;
+    private long stalenessMs;
+}
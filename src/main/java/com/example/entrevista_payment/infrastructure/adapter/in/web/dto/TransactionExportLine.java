@@ -0,0 +1,17 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionExportLine {
+    private TransactionResponse transaction;
+    private String continuationToken;
+}
@@ -0,0 +1,23 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionResponse {
+    private String id;
+    private String orderId;
+    private String customerId;
+    private BigDecimal amount;
+    private String status;
+    private Instant timestamp;
+    private Instant processedAt;
+}
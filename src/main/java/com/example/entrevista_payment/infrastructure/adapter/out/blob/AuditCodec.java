@@ -0,0 +1,95 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.blob;
+
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.AuditLogDto;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class AuditCodec {
+
+    public static final String GZIP = "gzip";
+
+    private final AuditFormat format;
+    private final boolean gzip;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    public AuditCodec(AuditFormat format, boolean gzip, ObjectMapper objectMapper) {
+        ObjectMapper mapper = format.mapperFrom(objectMapper);
+        this.format = format;
+        this.gzip = gzip;
+        this.writer = mapper.writerFor(AuditLogDto.class);
+        this.reader = mapper.readerFor(AuditLogDto.class);
+    }
+
+    public AuditFormat getFormat() { return format; }
+    public String getContentType() { return format.getContentType(); }
+    public String getContentEncoding() { return gzip ? GZIP : null; }
+    public String getFileExtension() { return gzip ? format.getFileExtension() + ".gz" : format.getFileExtension(); }
+
+    public byte[] encode(AuditLogDto dto) throws IOException {
+        byte[] record = writer.writeValueAsBytes(dto);
+        if (format != AuditFormat.JSON) {
+            return record;
+        }
+        byte[] line = new byte[record.length + 1];
+        System.arraycopy(record, 0, line, 0, record.length);
+        line[record.length] = '\n';
+        return line;
+    }
+
+    public byte[] encodeSegment(byte[] records) throws IOException {
+        if (!gzip) {
+            return records;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(records.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(records);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Bytes que ocupan los registros completos del spool; lo que sigue es un registro cortado
+     * por un crash a mitad de escritura.
+     */
+    public int completeLength(byte[] records) {
+        if (format == AuditFormat.JSON) {
+            int end = records.length;
+            while (end > 0 && records[end - 1] != '\n') {
+                end--;
+            }
+            return end;
+        }
+        int complete = 0;
+        try (JsonParser parser = reader.createParser(records)) {
+            while (parser.nextToken() != null) {
+                reader.readValue(parser);
+                complete = (int) parser.currentLocation().getByteOffset();
+            }
+        } catch (IOException e) {
+            // registro incompleto: se conserva hasta el ultimo que se pudo leer
+        }
+        return complete;
+    }
+
+    public List<AuditLogDto> decodeSegment(byte[] segment) throws IOException {
+        InputStream in = new ByteArrayInputStream(segment);
+        if (gzip) {
+            in = new GZIPInputStream(in);
+        }
+        try (MappingIterator<AuditLogDto> records = reader.readValues(in)) {
+            return records.readAll();
+        }
+    }
+}
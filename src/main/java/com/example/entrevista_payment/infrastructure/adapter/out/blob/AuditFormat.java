@@ -0,0 +1,48 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.blob;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+public enum AuditFormat {
+    JSON("application/x-ndjson", "ndjson"),
+    SMILE("application/x-jackson-smile", "smile"),
+    CBOR("application/cbor", "cbor");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    AuditFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() { return contentType; }
+    public String getFileExtension() { return fileExtension; }
+
+    ObjectMapper mapperFrom(ObjectMapper objectMapper) {
+        return switch (this) {
+            case JSON -> objectMapper;
+            case SMILE -> objectMapper.copyWith(new SmileFactory());
+            case CBOR -> objectMapper.copyWith(new CBORFactory());
+        };
+    }
+
+    public static AuditFormat fromValue(String value) {
+        for (AuditFormat format : AuditFormat.values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Formato de auditoria invalido: " + value);
+    }
+
+    public static AuditFormat fromContentType(String contentType) {
+        for (AuditFormat format : AuditFormat.values()) {
+            if (format.contentType.equalsIgnoreCase(contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Content-Type de auditoria invalido: " + contentType);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.blob;
+
+import com.azure.storage.blob.BlobAsyncClient;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.AuditLogDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.List;
+
+public class AuditSegmentReader {
+
+    private final ObjectMapper objectMapper;
+
+    public AuditSegmentReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public List<AuditLogDto> read(byte[] content, String contentType, String contentEncoding)
+            throws IOException {
+        AuditFormat format = AuditFormat.fromContentType(contentType);
+        boolean gzip = AuditCodec.GZIP.equalsIgnoreCase(contentEncoding);
+        return new AuditCodec(format, gzip, objectMapper).decodeSegment(content);
+    }
+
+    public Mono<List<AuditLogDto>> read(BlobAsyncClient blobClient) {
+        return Mono.zip(blobClient.getProperties(), blobClient.downloadContent())
+                .flatMap(blob -> Mono.fromCallable(() -> read(
+                        blob.getT2().toBytes(),
+                        blob.getT1().getContentType(),
+                        blob.getT1().getContentEncoding())));
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.blob;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Slf4j
+class AuditSpool {
+
+    private static final String OPEN_SUFFIX = ".open";
+    private static final String SEALED_SUFFIX = ".sealed";
+    private static final String UNKNOWN_RECORDS = "unknown";
+
+    private final Path directory;
+    private final AuditFormat format;
+    private final Function<AuditFormat, AuditCodec> codecs;
+    private final int maxRecords;
+    private final long maxBytes;
+    private final boolean fsync;
+    private final AtomicInteger sealedCount = new AtomicInteger();
+
+    private FileChannel channel;
+    private Path activeFile;
+    private Instant openedAt;
+    private int records;
+    private long bytes;
+
+    AuditSpool(Path directory, AuditFormat format, Function<AuditFormat, AuditCodec> codecs,
+               int maxRecords, long maxBytes, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.format = format;
+        this.codecs = codecs;
+        this.maxRecords = maxRecords;
+        this.maxBytes = maxBytes;
+        this.fsync = fsync;
+
+        Files.createDirectories(directory);
+        recoverOpenSegments();
+        sealedCount.set(sealedSegments().size());
+    }
+
+    synchronized void append(byte[] record) throws IOException {
+        if (channel == null) {
+            openSegment();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        records++;
+        bytes += record.length;
+
+        if (records >= maxRecords || bytes >= maxBytes) {
+            seal();
+        }
+    }
+
+    synchronized void sealIfOlderThan(Duration maxAge) throws IOException {
+        if (channel != null && openedAt.plus(maxAge).isBefore(Instant.now())) {
+            seal();
+        }
+    }
+
+    synchronized void sealIfNotEmpty() throws IOException {
+        if (channel != null) {
+            seal();
+        }
+    }
+
+    void delete(Segment segment) throws IOException {
+        if (Files.deleteIfExists(segment.getFile())) {
+            sealedCount.decrementAndGet();
+        }
+    }
+
+    // Para el gauge: se mantiene al sellar y borrar, sin listar el directorio en cada scrape
+    int getSealedCount() {
+        return sealedCount.get();
+    }
+
+    List<Segment> sealedSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(SEALED_SUFFIX))
+                    .sorted()
+                    .map(Segment::new)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        openedAt = Instant.now();
+        activeFile = directory.resolve(String.format("segment-%013d-%s-%s%s",
+                openedAt.toEpochMilli(), format.name().toLowerCase(), UUID.randomUUID(), OPEN_SUFFIX));
+        channel = FileChannel.open(activeFile,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        records = 0;
+        bytes = 0;
+    }
+
+    private void seal() throws IOException {
+        channel.force(false);
+        channel.close();
+        channel = null;
+        Files.move(activeFile, sealedName(activeFile, records));
+        sealedCount.incrementAndGet();
+        log.debug("Segmento de auditoria sellado: {} ({} registros)", activeFile.getFileName(), records);
+    }
+
+    private void recoverOpenSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(OPEN_SUFFIX)).toList()) {
+                log.warn("Recuperando segmento de auditoria sin sellar: {}", file.getFileName());
+                dropIncompleteTail(file);
+                Files.move(file, sealedName(file, -1));
+            }
+        }
+    }
+
+    // Un crash a mitad de append deja un registro cortado que haria ilegible el segmento binario
+    private void dropIncompleteTail(Path file) throws IOException {
+        AuditFormat segmentFormat = formatOf(file.getFileName().toString());
+        byte[] content = Files.readAllBytes(file);
+        int complete = codecs.apply(segmentFormat != null ? segmentFormat : format).completeLength(content);
+        if (complete < content.length) {
+            try (FileChannel recovered = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                recovered.truncate(complete);
+                recovered.force(false);
+            }
+            log.warn("Descartados {} bytes de un registro incompleto en {}",
+                    content.length - complete, file.getFileName());
+        }
+    }
+
+    private Path sealedName(Path openFile, int recordCount) {
+        String name = openFile.getFileName().toString();
+        String base = name.substring(0, name.length() - OPEN_SUFFIX.length());
+        String count = recordCount < 0 ? UNKNOWN_RECORDS : String.valueOf(recordCount);
+        return openFile.resolveSibling(base + "_" + count + SEALED_SUFFIX);
+    }
+
+    // segment-<epochMs>-<formato>-<uuid>; los segmentos sin formato en el nombre devuelven null
+    private static AuditFormat formatOf(String fileName) {
+        String[] parts = fileName.split("-", 4);
+        if (parts.length < 4) {
+            return null;
+        }
+        try {
+            return AuditFormat.fromValue(parts[2]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static class Segment {
+        private final Path file;
+        private final AuditFormat format;
+        private final String segmentId;
+        private final Instant openedAt;
+        private final int records;
+
+        Segment(Path file) {
+            String name = file.getFileName().toString().replace(SEALED_SUFFIX, "");
+            String count = name.substring(name.lastIndexOf('_') + 1);
+            String base = name.substring(0, name.lastIndexOf('_'));
+            String[] parts = base.split("-", 3);
+            this.file = file;
+            this.openedAt = Instant.ofEpochMilli(Long.parseLong(parts[1]));
+            this.format = formatOf(base);
+            this.segmentId = format != null ? parts[2].substring(parts[2].indexOf('-') + 1) : parts[2];
+            this.records = UNKNOWN_RECORDS.equals(count) ? -1 : Integer.parseInt(count);
+        }
+
+        Path getFile() { return file; }
+        AuditFormat getFormat() { return format; }
+        String getSegmentId() { return segmentId; }
+        Instant getOpenedAt() { return openedAt; }
+        int getRecords() { return records; }
+    }
+}
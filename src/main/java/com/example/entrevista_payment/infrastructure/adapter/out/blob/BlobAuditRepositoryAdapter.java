@@ -5,104 +5,277 @@ import com.azure.storage.blob.BlobAsyncClient;
 import com.azure.storage.blob.BlobContainerAsyncClient;
 import com.azure.storage.blob.BlobServiceAsyncClient;
 import com.azure.storage.blob.BlobServiceClientBuilder;
+import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
 import com.example.entrevista_payment.domain.model.AuditLog;
 import com.example.entrevista_payment.domain.port.out.AuditRepository;
 import com.example.entrevista_payment.infrastructure.mapper.AuditLogMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
-import java.time.LocalDate;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
 
 @Slf4j
 @Component
+@Profile("!loadtest")
 @ConditionalOnProperty(value = "audit.enabled", havingValue = "true", matchIfMissing = false)
 public class BlobAuditRepositoryAdapter implements AuditRepository {
 
     private final BlobContainerAsyncClient containerClient;
-    private final ObjectMapper objectMapper;
+    private final AuditCodec codec;
+    private final Map<AuditFormat, AuditCodec> codecs = new EnumMap<>(AuditFormat.class);
     private final AuditLogMapper auditLogMapper;
     private final boolean auditEnabled;
+    private final AuditSpool spool;
+    private final Duration segmentMaxAge;
+    private final int drainConcurrency;
+    private final Disposable drainer;
+    private final Scheduler blockingScheduler;
+    private final MeterRegistry meterRegistry;
+    private final Timer saveTimer;
+    private final DistributionSummary recordBytes;
+    private final Timer uploadTimer;
+    private final DistributionSummary uploadBytes;
 
     private static final String CONTAINER_NAME = "audits";
+    private static final DateTimeFormatter SEGMENT_PATH =
+            DateTimeFormatter.ofPattern("yyyy/MM/dd/'audit'-HHmmssSSS").withZone(ZoneOffset.UTC);
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(30);
 
+    @Autowired
     public BlobAuditRepositoryAdapter(
             @Value("${azure.storage.blob.connection-string}") String connectionString,
             @Value("${audit.enabled:false}") boolean auditEnabled,
+            @Value("${audit.segment.max-records:500}") int segmentMaxRecords,
+            @Value("${audit.segment.max-bytes:1048576}") long segmentMaxBytes,
+            @Value("${audit.segment.max-age-ms:5000}") long segmentMaxAgeMs,
+            @Value("${audit.codec.format:json}") String codecFormat,
+            @Value("${audit.codec.gzip:false}") boolean codecGzip,
+            @Value("${audit.spool.dir:./audit-spool}") String spoolDir,
+            @Value("${audit.spool.fsync:false}") boolean spoolFsync,
+            @Value("${audit.spool.drain-interval-ms:1000}") long drainIntervalMs,
+            @Value("${audit.spool.drain-concurrency:4}") int drainConcurrency,
             ObjectMapper objectMapper,
-            AuditLogMapper auditLogMapper) {
+            AuditLogMapper auditLogMapper,
+            Scheduler blockingScheduler,
+            MeterRegistry meterRegistry) throws IOException {
+        this(auditEnabled ? containerClient(connectionString) : null, auditEnabled, segmentMaxRecords,
+                segmentMaxBytes, segmentMaxAgeMs, codecFormat, codecGzip, spoolDir, spoolFsync, drainIntervalMs,
+                drainConcurrency, objectMapper, auditLogMapper, blockingScheduler, meterRegistry);
+    }
 
+    // El cliente del contenedor se recibe armado para que los tests puedan simular Blob
+    BlobAuditRepositoryAdapter(BlobContainerAsyncClient containerClient, boolean auditEnabled,
+                               int segmentMaxRecords, long segmentMaxBytes, long segmentMaxAgeMs,
+                               String codecFormat, boolean codecGzip, String spoolDir, boolean spoolFsync,
+                               long drainIntervalMs, int drainConcurrency, ObjectMapper objectMapper,
+                               AuditLogMapper auditLogMapper, Scheduler blockingScheduler,
+                               MeterRegistry meterRegistry) throws IOException {
         this.auditEnabled = auditEnabled;
-        this.objectMapper = objectMapper;
+        this.codec = new AuditCodec(AuditFormat.fromValue(codecFormat), codecGzip, objectMapper);
+        for (AuditFormat format : AuditFormat.values()) {
+            codecs.put(format, format == codec.getFormat() ? codec : new AuditCodec(format, codecGzip, objectMapper));
+        }
         this.auditLogMapper = auditLogMapper;
+        this.segmentMaxAge = Duration.ofMillis(segmentMaxAgeMs);
+        this.drainConcurrency = drainConcurrency;
+        this.blockingScheduler = blockingScheduler;
+        this.meterRegistry = meterRegistry;
+        this.saveTimer = Timer.builder("payment.audit.save")
+                .description("Latencia de registrar una auditoria (spool local)")
+                .register(meterRegistry);
+        this.recordBytes = DistributionSummary.builder("payment.audit.record.bytes")
+                .description("Bytes codificados por auditoria")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.uploadTimer = Timer.builder("payment.audit.upload")
+                .description("Latencia de subir un segmento de auditoria a Blob")
+                .register(meterRegistry);
+        this.uploadBytes = DistributionSummary.builder("payment.audit.upload.bytes")
+                .description("Bytes subidos a Blob por segmento")
+                .baseUnit("bytes")
+                .register(meterRegistry);
 
         if (auditEnabled) {
-            BlobServiceAsyncClient blobServiceClient = new BlobServiceClientBuilder()
-                    .connectionString(connectionString)
-                    .buildAsyncClient();
-
-            this.containerClient = blobServiceClient.getBlobContainerAsyncClient(CONTAINER_NAME);
+            this.containerClient = containerClient;
+            this.spool = new AuditSpool(Path.of(spoolDir), codec.getFormat(), codecs::get,
+                    segmentMaxRecords, segmentMaxBytes, spoolFsync);
             createContainerIfNotExists();
+            Gauge.builder("payment.audit.spool.segments", spool, AuditSpool::getSealedCount)
+                    .description("Segmentos sellados pendientes de subir")
+                    .register(meterRegistry);
+            this.drainer = startDrainer(Duration.ofMillis(drainIntervalMs));
         } else {
             this.containerClient = null;
+            this.spool = null;
+            this.drainer = null;
         }
     }
 
+    private static BlobContainerAsyncClient containerClient(String connectionString) {
+        BlobServiceAsyncClient blobServiceClient = new BlobServiceClientBuilder()
+                .connectionString(connectionString)
+                .buildAsyncClient();
+        return blobServiceClient.getBlobContainerAsyncClient(CONTAINER_NAME);
+    }
+
     @Override
     public Mono<Void> save(AuditLog auditLog) {
         if (!auditEnabled) {
             return Mono.empty();
         }
 
-        return Mono.fromCallable(() -> auditLogMapper.toDto(auditLog))
-                .flatMap(dto -> saveToBlobStorage(dto, auditLog))
-                .subscribeOn(Schedulers.boundedElastic())
+        return Mono.fromCallable(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    byte[] record = codec.encode(auditLogMapper.toDto(auditLog));
+                    appendToSpool(record);
+                    recordBytes.record(record.length);
+                    sample.stop(saveTimer);
+                    return record;
+                })
+                .subscribeOn(blockingScheduler)
+                .then()
                 .doOnSuccess(v -> log.debug("Auditoria guardada: {}",
                         auditLog.getTransaction().getId()))
-                .doOnError(e -> log.error("Error en guardad la auditoria: {}", e.getMessage()))
+                .doOnError(e -> log.error("Error en guardad la auditoria {}: {}",
+                        auditLog.getTransaction().getId(), e.getMessage()));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!auditEnabled) {
+            return;
+        }
+        drainer.dispose();
+        Mono.fromRunnable(this::sealActiveSegment)
+                .then(drainSealedSegments())
                 .onErrorResume(e -> {
-                    log.warn("No se realizo la transaccion: {}",
-                            auditLog.getTransaction().getId());
+                    log.warn("Auditorias pendientes quedan en spool: {}", e.getMessage());
                     return Mono.empty();
-                });
+                })
+                .block(SHUTDOWN_FLUSH_TIMEOUT);
     }
 
-    private Mono<Void> saveToBlobStorage(Object dto, AuditLog auditLog) {
-        return Mono.fromCallable(() -> {
-                    String blobPath = generateBlobPath(auditLog);
-                    String jsonContent = objectMapper.writeValueAsString(dto);
+    private void appendToSpool(byte[] record) {
+        try {
+            spool.append(record);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo escribir en spool de auditoria", e);
+        }
+    }
 
-                    BinaryData binaryData = BinaryData.fromString(jsonContent);
-                    BlobAsyncClient blobClient = containerClient.getBlobAsyncClient(blobPath);
+    private void deleteSegment(AuditSpool.Segment segment) {
+        try {
+            spool.delete(segment);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo borrar segmento de auditoria subido", e);
+        }
+    }
+
+    private void sealActiveSegment() {
+        try {
+            spool.sealIfNotEmpty();
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo sellar segmento de auditoria", e);
+        }
+    }
+
+    private Disposable startDrainer(Duration interval) {
+        return Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(() -> {
+                            try {
+                                spool.sealIfOlderThan(segmentMaxAge);
+                            } catch (IOException e) {
+                                log.error("Error sellando segmento de auditoria: {}", e.getMessage());
+                            }
+                        })
+                        .then(drainSealedSegments())
+                        .subscribeOn(blockingScheduler)
+                        .onErrorResume(e -> Mono.empty()))
+                .subscribe();
+    }
 
-                    return blobClient.upload(binaryData, true);
+    private Mono<Void> drainSealedSegments() {
+        return Flux.defer(() -> Flux.fromIterable(spool.sealedSegments()))
+                .flatMap(segment -> upload(segment)
+                        .then(Mono.fromRunnable(() -> deleteSegment(segment)))
+                        .onErrorResume(e -> Mono.empty()), drainConcurrency)
+                .then();
+    }
+
+    private Mono<Void> upload(AuditSpool.Segment segment) {
+        AuditCodec segmentCodec = codecFor(segment);
+        String blobPath = generateBlobPath(segment, segmentCodec);
+        BlobAsyncClient blobClient = containerClient.getBlobAsyncClient(blobPath);
+
+        return Mono.fromCallable(() -> segmentCodec.encodeSegment(Files.readAllBytes(segment.getFile())))
+                .doOnNext(content -> uploadBytes.record(content.length))
+                .map(content -> new BlobParallelUploadOptions(BinaryData.fromBytes(content))
+                        .setHeaders(new BlobHttpHeaders()
+                                .setContentType(segmentCodec.getContentType())
+                                .setContentEncoding(segmentCodec.getContentEncoding()))
+                        .setMetadata(metadata(segment, segmentCodec)))
+                .flatMap(options -> {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    return blobClient.uploadWithResponse(options)
+                            .doOnSuccess(response -> sample.stop(uploadTimer));
                 })
-                .flatMap(uploadMono -> uploadMono)
                 .then()
-                .doOnSuccess(v -> log.info("Auditoria blog: {}", generateBlobPath(auditLog)));
+                .doOnSuccess(v -> log.info("Auditoria blog: {} ({} registros)",
+                        blobPath, segment.getRecords()))
+                .doOnError(e -> log.error("Error subiendo segmento {}, queda en spool: {}",
+                        segment.getFile().getFileName(), e.getMessage()));
+    }
+
+    // Un segmento recuperado se sube con el formato con el que se escribio, no con el actual
+    private AuditCodec codecFor(AuditSpool.Segment segment) {
+        return segment.getFormat() != null ? codecs.get(segment.getFormat()) : codec;
+    }
+
+    private Map<String, String> metadata(AuditSpool.Segment segment, AuditCodec segmentCodec) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("format", segmentCodec.getFormat().name().toLowerCase());
+        if (segment.getRecords() >= 0) {
+            metadata.put("records", String.valueOf(segment.getRecords()));
+        }
+        return metadata;
     }
 
-    private String generateBlobPath(AuditLog auditLog) {
-        LocalDate date = auditLog.getTimestamp().atZone(ZoneOffset.UTC).toLocalDate();
-        String datePath = date.format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-        String filename = String.format("transaction-%s.json",
-                auditLog.getTransaction().getId().getValue());
-        return String.format("%s/%s", datePath, filename);
+    private String generateBlobPath(AuditSpool.Segment segment, AuditCodec segmentCodec) {
+        return String.format("%s-%s.%s",
+                SEGMENT_PATH.format(segment.getOpenedAt()), segment.getSegmentId(), segmentCodec.getFileExtension());
     }
 
     private void createContainerIfNotExists() {
         containerClient.createIfNotExists()
-                .subscribeOn(Schedulers.boundedElastic())
+                .subscribeOn(blockingScheduler)
                 .subscribe(
                         response -> log.debug("Contenedor '{}' verificacion-creada", CONTAINER_NAME),
                         error -> log.warn("No se puede crear contenedor '{}': {}",
                                 CONTAINER_NAME, error.getMessage())
                 );
     }
-}
\ No newline at end of file
+}
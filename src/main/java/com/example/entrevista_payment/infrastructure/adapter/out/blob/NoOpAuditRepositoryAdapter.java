@@ -4,11 +4,13 @@ import com.example.entrevista_payment.domain.model.AuditLog;
 import com.example.entrevista_payment.domain.port.out.AuditRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 @Slf4j
 @Component
+@Profile("!loadtest")
 @ConditionalOnProperty(value = "audit.enabled", havingValue = "false", matchIfMissing = true)
 public class NoOpAuditRepositoryAdapter implements AuditRepository {
 
@@ -0,0 +1,33 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.memory;
+
+import com.example.entrevista_payment.domain.exception.PaymentProcessingException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+class FaultInjector {
+
+    private final String name;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+
+    FaultInjector(String name, long latencyMs, long jitterMs, double errorRate) {
+        this.name = name;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+    }
+
+    <T> Mono<T> apply(Mono<T> call) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        boolean fail = errorRate > 0 && random.nextDouble() < errorRate;
+
+        Mono<T> result = fail
+                ? Mono.error(new PaymentProcessingException("Fallo inyectado en " + name))
+                : call;
+        return delay > 0 ? Mono.delay(Duration.ofMillis(delay)).then(result) : result;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.memory;
+
+import com.example.entrevista_payment.domain.model.TransactionAggregate;
+import com.example.entrevista_payment.domain.model.valueobjects.AggregateGranularity;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.AggregateCheckpointStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Profile("loadtest")
+public class InMemoryAggregateCheckpointStore implements AggregateCheckpointStore {
+
+    private final Map<String, TransactionAggregate> buckets = new ConcurrentHashMap<>();
+    private final Set<String> applied = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Mono<Void> checkpoint(String writerId, Instant minute, long sequence,
+                                 List<TransactionAggregate> aggregates) {
+        return Mono.fromRunnable(() -> {
+            if (!applied.add(writerId + ":" + minute.toEpochMilli() + ":" + sequence)) {
+                return;
+            }
+            for (TransactionAggregate aggregate : aggregates) {
+                for (AggregateGranularity granularity : AggregateGranularity.values()) {
+                    Instant bucketStart = granularity.truncate(minute);
+                    buckets.merge(key(granularity, bucketStart, aggregate),
+                            new TransactionAggregate(granularity, bucketStart, aggregate.getStatus(),
+                                    aggregate.getCount(), aggregate.getAmount()),
+                            TransactionAggregate::merge);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Flux<TransactionAggregate> find(AggregateGranularity granularity, Instant from, Instant to) {
+        return Flux.fromIterable(buckets.values())
+                .filter(aggregate -> aggregate.getGranularity() == granularity
+                        && !aggregate.getBucketStart().isBefore(from)
+                        && aggregate.getBucketStart().isBefore(to));
+    }
+
+    private String key(AggregateGranularity granularity, Instant bucketStart, TransactionAggregate aggregate) {
+        return granularity + ":" + bucketStart.toEpochMilli() + ":" + aggregate.getStatus();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.memory;
+
+import com.example.entrevista_payment.domain.model.AuditLog;
+import com.example.entrevista_payment.domain.port.out.AuditRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Profile("loadtest")
+public class InMemoryAuditRepository implements AuditRepository {
+
+    private final LongAdder saved = new LongAdder();
+    private final FaultInjector faults;
+
+    public InMemoryAuditRepository(
+            @Value("${loadtest.audit.latency-ms:0}") long latencyMs,
+            @Value("${loadtest.audit.jitter-ms:0}") long jitterMs,
+            @Value("${loadtest.audit.error-rate:0}") double errorRate) {
+        this.faults = new FaultInjector("audit", latencyMs, jitterMs, errorRate);
+    }
+
+    @Override
+    public Mono<Void> save(AuditLog auditLog) {
+        return faults.apply(Mono.fromRunnable(saved::increment));
+    }
+
+    public long getSaved() {
+        return saved.sum();
+    }
+}
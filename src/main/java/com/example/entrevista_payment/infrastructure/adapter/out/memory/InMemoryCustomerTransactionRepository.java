@@ -0,0 +1,44 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.memory;
+
+import com.example.entrevista_payment.domain.model.CustomerTransactionPage;
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.port.out.CustomerTransactionRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+
+@Component
+@Profile("loadtest")
+public class InMemoryCustomerTransactionRepository implements CustomerTransactionRepository {
+
+    private final InMemoryTransactionRepository transactionRepository;
+
+    public InMemoryCustomerTransactionRepository(InMemoryTransactionRepository transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    @Override
+    public Mono<CustomerTransactionPage> findByCustomer(CustomerId customerId, int pageSize,
+                                                       String continuationToken) {
+        return Mono.fromSupplier(() -> {
+            List<Transaction> transactions = transactionRepository.transactions().stream()
+                    .filter(t -> t.getCustomerId().equals(customerId))
+                    .sorted(Comparator.comparing(Transaction::getTimestamp).reversed())
+                    .toList();
+            Money total = transactions.stream()
+                    .map(Transaction::getAmount)
+                    .reduce(Money.ofMinor(0), Money::add);
+
+            int offset = continuationToken != null ? Integer.parseInt(continuationToken) : 0;
+            int end = Math.min(transactions.size(), offset + pageSize);
+            String next = end < transactions.size() ? Integer.toString(end) : null;
+            return new CustomerTransactionPage(customerId, transactions.size(), total,
+                    transactions.subList(Math.min(offset, end), end), next);
+        });
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.memory;
+
+import com.example.entrevista_payment.domain.port.out.OrderQueuePort;
+import com.example.entrevista_payment.infrastructure.adapter.out.queue.OrderPayloadParser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@Profile("loadtest")
+public class InMemoryOrderQueueAdapter implements OrderQueuePort {
+
+    private final Queue<InMemoryQueueMessage> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final OrderPayloadParser payloadParser;
+    private final int batchSize;
+    private final int maxDequeueCount;
+    private final FaultInjector receiveFaults;
+    private final FaultInjector deleteFaults;
+    private final Timer endToEnd;
+    private final Counter completed;
+    private final Counter poisoned;
+
+    public InMemoryOrderQueueAdapter(
+            OrderPayloadParser payloadParser,
+            @Value("${loadtest.queue.batch-size:32}") int batchSize,
+            @Value("${azure.storage.queue.poison.max-dequeue-count:5}") int maxDequeueCount,
+            @Value("${loadtest.queue.latency-ms:0}") long latencyMs,
+            @Value("${loadtest.queue.jitter-ms:0}") long jitterMs,
+            @Value("${loadtest.queue.error-rate:0}") double errorRate,
+            MeterRegistry meterRegistry) {
+        this.payloadParser = payloadParser;
+        this.batchSize = batchSize;
+        this.maxDequeueCount = maxDequeueCount;
+        this.receiveFaults = new FaultInjector("queue.receive", latencyMs, jitterMs, errorRate);
+        this.deleteFaults = new FaultInjector("queue.delete", latencyMs, jitterMs, errorRate);
+        this.endToEnd = Timer.builder("payment.loadtest.latency")
+                .description("Latencia desde el enqueue hasta el delete del mensaje")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry);
+        this.completed = Counter.builder("payment.loadtest.completed")
+                .description("Mensajes procesados y borrados de la cola en memoria")
+                .register(meterRegistry);
+        this.poisoned = Counter.builder("payment.loadtest.poisoned")
+                .description("Mensajes descartados como poison en la cola en memoria")
+                .register(meterRegistry);
+    }
+
+    public void enqueue(String payload) {
+        String messageId = Long.toString(sequence.incrementAndGet());
+        queue.add(new InMemoryQueueMessage(messageId, payload, System.nanoTime(), 0, null));
+        depth.incrementAndGet();
+    }
+
+    public int depth() {
+        return depth.get();
+    }
+
+    public Timer getEndToEnd() {
+        return endToEnd;
+    }
+
+    public long getCompleted() {
+        return (long) completed.count();
+    }
+
+    public long getPoisoned() {
+        return (long) poisoned.count();
+    }
+
+    @Override
+    public Mono<ReceivedMessages> receiveMessages() {
+        return receiveFaults.apply(Mono.fromSupplier(this::poll))
+                .onErrorResume(e -> {
+                    log.error("Error recibiendo mensaje de queue: {}", e.getMessage());
+                    return Mono.just(ReceivedMessages.empty());
+                });
+    }
+
+    @Override
+    public Mono<Void> deleteMessage(QueueMessage message) {
+        return deleteFaults.apply(Mono.<Void>fromRunnable(() -> {
+                    InMemoryQueueMessage inMemory = (InMemoryQueueMessage) message;
+                    endToEnd.record(System.nanoTime() - inMemory.getEnqueuedAtNanos(),
+                            TimeUnit.NANOSECONDS);
+                    completed.increment();
+                }))
+                .onErrorResume(e -> {
+                    release(message);
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public Mono<Void> deadLetter(QueueMessage message, String reason) {
+        return Mono.fromRunnable(() -> {
+            poisoned.increment();
+            log.debug("Message {} movido a poison: {}", message.getMessageId(), reason);
+        });
+    }
+
+    @Override
+    public Mono<Void> renewLease(QueueMessage message) {
+        return Mono.empty();
+    }
+
+    @Override
+    public void release(QueueMessage message) {
+        queue.add((InMemoryQueueMessage) message);
+        depth.incrementAndGet();
+    }
+
+    private ReceivedMessages poll() {
+        List<QueueMessage> messages = new ArrayList<>(batchSize);
+        int received = 0;
+        while (received < batchSize) {
+            InMemoryQueueMessage next = queue.poll();
+            if (next == null) {
+                break;
+            }
+            received++;
+            depth.decrementAndGet();
+            InMemoryQueueMessage delivered = deliver(next);
+            if (delivered != null) {
+                messages.add(delivered);
+            }
+        }
+        return new ReceivedMessages(messages, received, received == batchSize);
+    }
+
+    private InMemoryQueueMessage deliver(InMemoryQueueMessage message) {
+        if (message.getDequeueCount() >= maxDequeueCount) {
+            poisoned.increment();
+            return null;
+        }
+        try {
+            return message.redelivered(payloadParser.parse(message.getPayload()));
+        } catch (Exception e) {
+            poisoned.increment();
+            return null;
+        }
+    }
+}
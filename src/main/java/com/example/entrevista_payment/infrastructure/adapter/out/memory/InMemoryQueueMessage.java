@@ -0,0 +1,29 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.memory;
+
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.port.out.OrderQueuePort;
+import lombok.Getter;
+
+@Getter
+class InMemoryQueueMessage implements OrderQueuePort.QueueMessage {
+    private final String messageId;
+    private final String payload;
+    private final long enqueuedAtNanos;
+    private final int dequeueCount;
+    private final Order order;
+
+    InMemoryQueueMessage(String messageId, String payload, long enqueuedAtNanos, int dequeueCount, Order order) {
+        this.messageId = messageId;
+        this.payload = payload;
+        this.enqueuedAtNanos = enqueuedAtNanos;
+        this.dequeueCount = dequeueCount;
+        this.order = order;
+    }
+
+    @Override
+    public String getPopReceipt() { return messageId + "-" + dequeueCount; }
+
+    InMemoryQueueMessage redelivered(Order order) {
+        return new InMemoryQueueMessage(messageId, payload, enqueuedAtNanos, dequeueCount + 1, order);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.memory;
+
+import com.example.entrevista_payment.domain.exception.PaymentProcessingException;
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.TransactionCount;
+import com.example.entrevista_payment.domain.model.TransactionPage;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import com.example.entrevista_payment.domain.port.out.TransactionRepository;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.CosmosConcurrencyLimiter;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.TransactionAggregator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+@Profile("loadtest")
+public class InMemoryTransactionRepository implements TransactionRepository {
+
+    private final Map<OrderId, Transaction> transactions = new ConcurrentHashMap<>();
+    private final CosmosConcurrencyLimiter concurrencyLimiter;
+    private final TransactionAggregator transactionAggregator;
+    private final FaultInjector faults;
+    private final double throttleRate;
+    private final Duration retryAfter;
+
+    public InMemoryTransactionRepository(
+            CosmosConcurrencyLimiter concurrencyLimiter,
+            TransactionAggregator transactionAggregator,
+            @Value("${loadtest.cosmos.latency-ms:0}") long latencyMs,
+            @Value("${loadtest.cosmos.jitter-ms:0}") long jitterMs,
+            @Value("${loadtest.cosmos.error-rate:0}") double errorRate,
+            @Value("${loadtest.cosmos.throttle-rate:0}") double throttleRate,
+            @Value("${loadtest.cosmos.retry-after-ms:100}") long retryAfterMs) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.transactionAggregator = transactionAggregator;
+        this.faults = new FaultInjector("cosmos", latencyMs, jitterMs, errorRate);
+        this.throttleRate = throttleRate;
+        this.retryAfter = Duration.ofMillis(retryAfterMs);
+    }
+
+    @Override
+    public Mono<Transaction> save(Transaction transaction) {
+        return concurrencyLimiter.execute(() -> faults.apply(Mono.fromSupplier(() -> store(transaction))));
+    }
+
+    @Override
+    public Flux<SaveResult> saveAll(Flux<Transaction> transactions) {
+        return transactions.flatMap(transaction -> save(transaction)
+                .map(SaveResult::success)
+                .onErrorResume(e -> Mono.just(SaveResult.failure(transaction, e))));
+    }
+
+    @Override
+    public Mono<Transaction> findByOrderId(OrderId orderId) {
+        return Mono.justOrEmpty(transactions.get(orderId));
+    }
+
+    @Override
+    public Flux<TransactionPage> findPages(Instant from, Instant to, int pageSize, String continuationToken) {
+        return Flux.defer(() -> {
+            List<Transaction> matching = transactions.values().stream()
+                    .filter(t -> !t.getTimestamp().isBefore(from) && t.getTimestamp().isBefore(to))
+                    .sorted(Comparator.comparing(t -> t.getOrderId().getValue()))
+                    .toList();
+            int start = continuationToken != null ? Integer.parseInt(continuationToken) : 0;
+            return Flux.range(0, Math.max(0, (matching.size() - start + pageSize - 1) / pageSize))
+                    .map(page -> {
+                        int offset = start + page * pageSize;
+                        int end = Math.min(matching.size(), offset + pageSize);
+                        return new TransactionPage(matching.subList(offset, end),
+                                end < matching.size() ? Integer.toString(end) : null);
+                    });
+        });
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> (long) transactions.size());
+    }
+
+    @Override
+    public Mono<TransactionCount> currentCount() {
+        return count().map(count -> new TransactionCount(count, Instant.now()));
+    }
+
+    Collection<Transaction> transactions() {
+        return transactions.values();
+    }
+
+    private Transaction store(Transaction transaction) {
+        // CosmosException no tiene constructor publico: el 429 se simula avisando al limitador
+        if (throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate) {
+            concurrencyLimiter.onThrottle(retryAfter);
+            throw new PaymentProcessingException("429 simulado en cosmos");
+        }
+        Transaction existing = transactions.putIfAbsent(transaction.getOrderId(), transaction);
+        if (existing != null) {
+            return existing;
+        }
+        transactionAggregator.record(transaction);
+        return transaction;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import com.example.entrevista_payment.domain.model.TransactionAggregate;
+import com.example.entrevista_payment.domain.model.valueobjects.AggregateGranularity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AggregateCheckpointStore {
+
+    /**
+     * Suma un delta de agregados de un minuto a los buckets de minuto, hora y dia. Un writer
+     * manda varios deltas por minuto con sequence creciente; debe ser idempotente por
+     * (writerId, minute, sequence): reintentar el mismo delta no vuelve a sumar.
+     */
+    Mono<Void> checkpoint(String writerId, Instant minute, long sequence, List<TransactionAggregate> aggregates);
+
+    Flux<TransactionAggregate> find(AggregateGranularity granularity, Instant from, Instant to);
+}
@@ -0,0 +1,185 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.CosmosBatch;
+import com.azure.cosmos.models.CosmosBatchResponse;
+import com.azure.cosmos.models.CosmosContainerProperties;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosPatchOperations;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.spring.data.cosmos.core.convert.MappingCosmosConverter;
+import com.example.entrevista_payment.domain.exception.PaymentProcessingException;
+import com.example.entrevista_payment.domain.model.TransactionAggregate;
+import com.example.entrevista_payment.domain.model.valueobjects.AggregateGranularity;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.model.valueobjects.TransactionStatus;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.TransactionAggregateEntity;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buckets en transaction-aggregates particionados por dia (UTC): el minuto, su hora y su dia
+ * comparten particion, asi un checkpoint es un unico batch transaccional. El batch crea un
+ * marcador por (writer, minuto, secuencia) con TTL; si ya existe (409) ese delta ya estaba sumado.
+ */
+@Slf4j
+@Component
+@Profile("!loadtest")
+public class CosmosAggregateCheckpointStore implements AggregateCheckpointStore {
+
+    private static final int NOT_FOUND = 404;
+    private static final int CONFLICT = 409;
+    private static final AggregateGranularity[] ROLLUPS = AggregateGranularity.values();
+
+    private final CosmosAsyncContainer aggregatesContainer;
+    private final MappingCosmosConverter cosmosConverter;
+    private final CosmosConcurrencyLimiter concurrencyLimiter;
+    private final int markerTtlSeconds;
+
+    public CosmosAggregateCheckpointStore(
+            @Qualifier("aggregatesContainer") CosmosAsyncContainer aggregatesContainer,
+            MappingCosmosConverter cosmosConverter,
+            CosmosConcurrencyLimiter concurrencyLimiter,
+            @Value("${payment.aggregates.marker-ttl-seconds:172800}") int markerTtlSeconds) {
+        this.aggregatesContainer = aggregatesContainer;
+        this.cosmosConverter = cosmosConverter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.markerTtlSeconds = markerTtlSeconds;
+    }
+
+    @PostConstruct
+    public void createContainer() {
+        CosmosContainerProperties properties = new CosmosContainerProperties(aggregatesContainer.getId(), "/day");
+        properties.setDefaultTimeToLiveInSeconds(-1);
+        aggregatesContainer.getDatabase().createContainerIfNotExists(properties)
+                .subscribe(
+                        response -> log.info("Container '{}' listo", aggregatesContainer.getId()),
+                        error -> log.warn("No se puede crear container '{}': {}",
+                                aggregatesContainer.getId(), error.getMessage())
+                );
+    }
+
+    @Override
+    public Mono<Void> checkpoint(String writerId, Instant minute, long sequence,
+                                 List<TransactionAggregate> aggregates) {
+        if (aggregates.isEmpty()) {
+            return Mono.empty();
+        }
+        return applyBatch(writerId + ":" + minute.toEpochMilli() + ":" + sequence, minute, aggregates, true);
+    }
+
+    @Override
+    public Flux<TransactionAggregate> find(AggregateGranularity granularity, Instant from, Instant to) {
+        List<CosmosItemIdentity> ids = new ArrayList<>();
+        for (Instant bucket = from; bucket.isBefore(to); bucket = bucket.plus(granularity.getDuration())) {
+            for (TransactionStatus status : TransactionStatus.values()) {
+                ids.add(new CosmosItemIdentity(partitionKey(bucket), id(granularity, bucket, status)));
+            }
+        }
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return aggregatesContainer.readMany(ids, JsonNode.class)
+                .flatMapIterable(response -> response.getResults())
+                .map(node -> toAggregate(cosmosConverter.read(TransactionAggregateEntity.class, node)));
+    }
+
+    private Mono<Void> applyBatch(String markerKey, Instant minute, List<TransactionAggregate> aggregates,
+                                  boolean createMissing) {
+        return concurrencyLimiter.execute(() -> aggregatesContainer.executeCosmosBatch(batch(markerKey, minute, aggregates)))
+                .flatMap(response -> {
+                    if (response.isSuccessStatusCode() || statusOf(response, 0) == CONFLICT) {
+                        return Mono.empty();
+                    }
+                    if (createMissing && response.getResults().stream().anyMatch(r -> r.getStatusCode() == NOT_FOUND)) {
+                        return createBuckets(minute, aggregates).then(applyBatch(markerKey, minute, aggregates, false));
+                    }
+                    return Mono.error(new PaymentProcessingException(
+                            "Cosmos batch transaction-aggregates status " + response.getStatusCode()));
+                });
+    }
+
+    private CosmosBatch batch(String markerKey, Instant minute, List<TransactionAggregate> aggregates) {
+        CosmosBatch batch = CosmosBatch.createCosmosBatch(partitionKey(minute));
+        batch.createItemOperation(marker(markerKey, minute));
+        for (TransactionAggregate aggregate : aggregates) {
+            for (AggregateGranularity granularity : ROLLUPS) {
+                batch.patchItemOperation(id(granularity, granularity.truncate(minute), aggregate.getStatus()),
+                        CosmosPatchOperations.create()
+                                .increment("/count", aggregate.getCount())
+                                .increment("/amountMinor", aggregate.getAmount().getMinorUnits()));
+            }
+        }
+        return batch;
+    }
+
+    private Mono<Void> createBuckets(Instant minute, List<TransactionAggregate> aggregates) {
+        return Flux.fromIterable(aggregates)
+                .flatMap(aggregate -> Flux.fromArray(ROLLUPS)
+                        .flatMap(granularity -> createBucket(granularity, granularity.truncate(minute),
+                                aggregate.getStatus())))
+                .then();
+    }
+
+    private Mono<Void> createBucket(AggregateGranularity granularity, Instant bucketStart, TransactionStatus status) {
+        TransactionAggregateEntity entity = TransactionAggregateEntity.builder()
+                .id(id(granularity, bucketStart, status))
+                .day(day(bucketStart))
+                .granularity(granularity.name())
+                .bucketStart(bucketStart.toEpochMilli())
+                .status(status.getValue())
+                .build();
+        return aggregatesContainer.createItem(cosmosConverter.writeJsonNode(entity), partitionKey(bucketStart),
+                        new CosmosItemRequestOptions())
+                .then()
+                .onErrorResume(e -> e instanceof CosmosException cosmosException
+                        && cosmosException.getStatusCode() == CONFLICT, e -> Mono.empty());
+    }
+
+    private ObjectNode marker(String markerKey, Instant minute) {
+        return JsonNodeFactory.instance.objectNode()
+                .put("id", "applied:" + markerKey)
+                .put("day", day(minute))
+                .put("ttl", markerTtlSeconds);
+    }
+
+    private TransactionAggregate toAggregate(TransactionAggregateEntity entity) {
+        return new TransactionAggregate(AggregateGranularity.valueOf(entity.getGranularity()),
+                Instant.ofEpochMilli(entity.getBucketStart()), TransactionStatus.fromValue(entity.getStatus()),
+                entity.getCount(), Money.ofMinor(entity.getAmountMinor()));
+    }
+
+    private int statusOf(CosmosBatchResponse response, int index) {
+        return response.getResults().size() > index
+                ? response.getResults().get(index).getStatusCode()
+                : response.getStatusCode();
+    }
+
+    private String id(AggregateGranularity granularity, Instant bucketStart, TransactionStatus status) {
+        return granularity.name().toLowerCase() + ":" + bucketStart.toEpochMilli() + ":" + status.getValue();
+    }
+
+    private String day(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC).toLocalDate().toString();
+    }
+
+    private PartitionKey partitionKey(Instant instant) {
+        return new PartitionKey(day(instant));
+    }
+}
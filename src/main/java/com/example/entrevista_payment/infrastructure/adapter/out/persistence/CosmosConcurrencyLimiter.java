@@ -0,0 +1,295 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import com.azure.cosmos.CosmosException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Limite AIMD de escrituras en vuelo contra Cosmos: baja multiplicativamente con 429
+ * (y se pausa el retry-after) o cuando el p99 de una ventana supera latency-tolerance veces
+ * la linea base, sube +1 por ventana sana. Un lote bulk ocupa un permiso por operacion.
+ * El bean compartido ("writes") cubre las escrituras del pipeline y frena las lecturas de la
+ * cola; otros consumidores de Cosmos crean su propia instancia con capped.
+ */
+@Slf4j
+@Component
+public class CosmosConcurrencyLimiter {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final String WRITES = "writes";
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final long decreaseIntervalNanos;
+    private final long[] window;
+    private final Counter throttled;
+
+    private final Deque<Waiter> permitWaiters = new ArrayDeque<>();
+    private final List<Waiter> capacityWaiters = new ArrayList<>();
+    private double limit;
+    private int inFlight;
+    private long pausedUntilNanos;
+    private long lastDecreaseNanos;
+    private int windowCount;
+    private long baselineNanos;
+
+    @Autowired
+    public CosmosConcurrencyLimiter(
+            @Value("${payment.limiter.initial-limit:32}") int initialLimit,
+            @Value("${payment.limiter.min-limit:1}") int minLimit,
+            @Value("${payment.limiter.max-limit:256}") int maxLimit,
+            @Value("${payment.limiter.backoff-ratio:0.7}") double backoffRatio,
+            @Value("${payment.limiter.window-size:100}") int windowSize,
+            @Value("${payment.limiter.latency-tolerance:2.0}") double latencyTolerance,
+            @Value("${payment.limiter.decrease-interval-ms:500}") long decreaseIntervalMs,
+            MeterRegistry meterRegistry) {
+        this(WRITES, initialLimit, minLimit, maxLimit, backoffRatio, windowSize, latencyTolerance,
+                decreaseIntervalMs, meterRegistry);
+    }
+
+    CosmosConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                             int windowSize, double latencyTolerance, long decreaseIntervalMs,
+                             MeterRegistry meterRegistry) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.decreaseIntervalNanos = Duration.ofMillis(decreaseIntervalMs).toNanos();
+        this.window = new long[Math.max(1, windowSize)];
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecreaseNanos = System.nanoTime() - decreaseIntervalNanos;
+
+        Gauge.builder("payment.cosmos.limiter.limit", this, CosmosConcurrencyLimiter::getLimit)
+                .description("Escrituras concurrentes permitidas contra Cosmos")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("payment.cosmos.limiter.inflight", this, CosmosConcurrencyLimiter::getInFlight)
+                .description("Escrituras en vuelo contra Cosmos")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        this.throttled = Counter.builder("payment.cosmos.limiter.throttled")
+                .description("Respuestas 429 de Cosmos vistas por el limitador")
+                .tag("limiter", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Limitador propio para un consumidor que no debe competir por los permisos del pipeline:
+     * arranca y topa en maxLimit, con los mismos criterios de baja y subida.
+     */
+    public static CosmosConcurrencyLimiter capped(String name, int maxLimit, MeterRegistry meterRegistry) {
+        return new CosmosConcurrencyLimiter(name, maxLimit, 1, maxLimit, 0.7, 100, 2.0, 500, meterRegistry);
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        return Mono.usingWhen(acquire(1),
+                permit -> {
+                    long start = System.nanoTime();
+                    return call.get()
+                            .doOnSuccess(v -> onLatency(System.nanoTime() - start))
+                            .doOnError(this::onError);
+                },
+                permit -> release(1),
+                (permit, error) -> release(1),
+                permit -> release(1));
+    }
+
+    /**
+     * Ejecuta un lote de operations operaciones: toma un permiso por operacion (si el lote es
+     * mayor que el limite, espera a correr solo) y cada respuesta cuenta como una latencia.
+     */
+    public <T> Flux<T> executeMany(int operations, Supplier<Flux<T>> call) {
+        int permits = Math.max(1, operations);
+        return Flux.usingWhen(acquire(permits),
+                permit -> {
+                    long start = System.nanoTime();
+                    return call.get()
+                            .doOnNext(v -> onLatency(System.nanoTime() - start))
+                            .doOnError(this::onError);
+                },
+                permit -> release(permits),
+                (permit, error) -> release(permits),
+                permit -> release(permits));
+    }
+
+    public Mono<Void> awaitCapacity() {
+        return Mono.<Boolean>create(sink -> {
+            Waiter waiter = new Waiter(sink, 1);
+            synchronized (this) {
+                if (permitWaiters.isEmpty() && hasCapacity(1)) {
+                    waiter.granted = true;
+                } else {
+                    capacityWaiters.add(waiter);
+                    sink.onCancel(() -> {
+                        synchronized (this) {
+                            capacityWaiters.remove(waiter);
+                        }
+                    });
+                }
+            }
+            if (waiter.granted) {
+                sink.success(Boolean.TRUE);
+            }
+        }).then();
+    }
+
+    public void onThrottle(Duration retryAfter) {
+        throttled.increment();
+        Duration pause = retryAfter == null || retryAfter.isNegative() ? Duration.ZERO : retryAfter;
+        synchronized (this) {
+            decrease();
+            pausedUntilNanos = Math.max(pausedUntilNanos, System.nanoTime() + pause.toNanos());
+        }
+        log.warn("Cosmos 429 ({}), limite {} y pausa de {} ms", name, getLimit(), pause.toMillis());
+        Mono.delay(pause).subscribe(tick -> drain());
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private Mono<Boolean> acquire(int permits) {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink, permits);
+            synchronized (this) {
+                if (permitWaiters.isEmpty() && hasCapacity(permits)) {
+                    inFlight += permits;
+                    waiter.granted = true;
+                } else {
+                    permitWaiters.add(waiter);
+                    sink.onCancel(() -> cancel(waiter));
+                }
+            }
+            if (waiter.granted) {
+                sink.success(Boolean.TRUE);
+            }
+        });
+    }
+
+    private void cancel(Waiter waiter) {
+        boolean releasePermit;
+        synchronized (this) {
+            releasePermit = waiter.granted;
+            permitWaiters.remove(waiter);
+        }
+        if (releasePermit) {
+            releasePermits(waiter.permits);
+        } else {
+            drain();
+        }
+    }
+
+    private Mono<Void> release(int permits) {
+        return Mono.fromRunnable(() -> releasePermits(permits));
+    }
+
+    private void releasePermits(int permits) {
+        synchronized (this) {
+            inFlight -= permits;
+        }
+        drain();
+    }
+
+    void onLatency(long latencyNanos) {
+        synchronized (this) {
+            window[windowCount++] = latencyNanos;
+            if (windowCount < window.length) {
+                return;
+            }
+            long p99 = p99();
+            windowCount = 0;
+            if (baselineNanos == 0 || p99 < baselineNanos) {
+                baselineNanos = p99;
+            } else if (p99 > baselineNanos * latencyTolerance) {
+                decrease();
+                // La linea base sigue despacio al p99 para no quedar pegada si Cosmos cambia de nivel
+                baselineNanos += (p99 - baselineNanos) / 10;
+            } else {
+                limit = Math.min(maxLimit, limit + 1);
+                baselineNanos += (p99 - baselineNanos) / 10;
+            }
+        }
+        drain();
+    }
+
+    private long p99() {
+        long[] sorted = window.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+    }
+
+    private void onError(Throwable e) {
+        if (e instanceof CosmosException cosmosException
+                && cosmosException.getStatusCode() == TOO_MANY_REQUESTS) {
+            onThrottle(cosmosException.getRetryAfterDuration());
+        }
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos >= decreaseIntervalNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            lastDecreaseNanos = now;
+        }
+    }
+
+    private boolean hasCapacity(int permits) {
+        return System.nanoTime() >= pausedUntilNanos && (inFlight == 0 || inFlight + permits <= (int) limit);
+    }
+
+    private void drain() {
+        List<Waiter> ready = new ArrayList<>();
+        synchronized (this) {
+            while (!permitWaiters.isEmpty() && hasCapacity(permitWaiters.peek().permits)) {
+                Waiter waiter = permitWaiters.poll();
+                inFlight += waiter.permits;
+                waiter.granted = true;
+                ready.add(waiter);
+            }
+            if (permitWaiters.isEmpty() && hasCapacity(1)) {
+                ready.addAll(capacityWaiters);
+                capacityWaiters.clear();
+            }
+        }
+        ready.forEach(Waiter::grant);
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Boolean> sink;
+        private final int permits;
+        private boolean granted;
+
+        private Waiter(MonoSink<Boolean> sink, int permits) {
+            this.sink = sink;
+            this.permits = permits;
+        }
+
+        private void grant() {
+            sink.success(Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.azure.spring.data.cosmos.core.convert.MappingCosmosConverter;
+import com.example.entrevista_payment.domain.model.CustomerTransactionPage;
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.port.out.CustomerTransactionRepository;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.CustomerTotalsEntity;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.CustomerTransactionEntity;
+import com.example.entrevista_payment.infrastructure.mapper.TransactionMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Component
+@Profile("!loadtest")
+public class CustomerTransactionRepositoryAdapter implements CustomerTransactionRepository {
+
+    private static final int NOT_FOUND = 404;
+    private static final String PAGE_QUERY =
+            "SELECT * FROM c WHERE c.type = @type ORDER BY c.timestamp DESC";
+
+    private final CosmosAsyncContainer customerContainer;
+    private final MappingCosmosConverter cosmosConverter;
+    private final TransactionMapper transactionMapper;
+    private final MeterRegistry meterRegistry;
+    private final Timer pageTimer;
+    private final DistributionSummary requestCharge;
+
+    public CustomerTransactionRepositoryAdapter(
+            @Qualifier("customerTransactionsContainer") CosmosAsyncContainer customerContainer,
+            MappingCosmosConverter cosmosConverter,
+            TransactionMapper transactionMapper,
+            MeterRegistry meterRegistry) {
+        this.customerContainer = customerContainer;
+        this.cosmosConverter = cosmosConverter;
+        this.transactionMapper = transactionMapper;
+        this.meterRegistry = meterRegistry;
+        this.pageTimer = Timer.builder("payment.customer.view.page")
+                .description("Latencia de leer una pagina de transactions de un cliente")
+                .register(meterRegistry);
+        this.requestCharge = DistributionSummary.builder("payment.customer.view.request.charge")
+                .description("RU consumidas por pagina de transactions de un cliente")
+                .baseUnit("RU")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<CustomerTransactionPage> findByCustomer(CustomerId customerId, int pageSize,
+                                                       String continuationToken) {
+        PartitionKey partitionKey = new PartitionKey(customerId.getValue());
+        return Mono.defer(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    return Mono.zip(readPage(partitionKey, pageSize, continuationToken),
+                                    readTotals(customerId, partitionKey))
+                            .doFinally(signal -> sample.stop(pageTimer));
+                })
+                .map(tuple -> {
+                    FeedResponse<JsonNode> page = tuple.getT1();
+                    CustomerTotalsEntity totals = tuple.getT2();
+                    List<Transaction> transactions = page.getResults().stream()
+                            .map(node -> transactionMapper.toDomain(
+                                    cosmosConverter.read(CustomerTransactionEntity.class, node)))
+                            .toList();
+                    return new CustomerTransactionPage(customerId, totals.getCount(),
+                            Money.ofMinor(totals.getAmountMinor()), transactions, page.getContinuationToken());
+                });
+    }
+
+    private Mono<FeedResponse<JsonNode>> readPage(PartitionKey partitionKey, int pageSize,
+                                                  String continuationToken) {
+        CosmosQueryRequestOptions options = new CosmosQueryRequestOptions().setPartitionKey(partitionKey);
+        SqlQuerySpec query = new SqlQuerySpec(PAGE_QUERY,
+                new SqlParameter("@type", CustomerTransactionEntity.TYPE));
+
+        return customerContainer.queryItems(query, options, JsonNode.class)
+                .byPage(continuationToken, pageSize)
+                .next()
+                .doOnNext(page -> requestCharge.record(page.getRequestCharge()));
+    }
+
+    private Mono<CustomerTotalsEntity> readTotals(CustomerId customerId, PartitionKey partitionKey) {
+        return customerContainer.readItem(CustomerTotalsEntity.ID, partitionKey, JsonNode.class)
+                .doOnNext(response -> requestCharge.record(response.getRequestCharge()))
+                .map(response -> cosmosConverter.read(CustomerTotalsEntity.class, response.getItem()))
+                .onErrorResume(e -> e instanceof CosmosException cosmosException
+                                && cosmosException.getStatusCode() == NOT_FOUND,
+                        e -> Mono.just(CustomerTotalsEntity.builder()
+                                .id(CustomerTotalsEntity.ID)
+                                .customerId(customerId.getValue())
+                                .type(CustomerTotalsEntity.TYPE)
+                                .build()));
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import com.azure.cosmos.ChangeFeedProcessor;
+import com.azure.cosmos.ChangeFeedProcessorBuilder;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosAsyncDatabase;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.ChangeFeedProcessorOptions;
+import com.azure.cosmos.models.CosmosBatch;
+import com.azure.cosmos.models.CosmosBatchResponse;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosPatchOperations;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.spring.data.cosmos.core.convert.MappingCosmosConverter;
+import com.example.entrevista_payment.domain.exception.PaymentProcessingException;
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.CustomerTotalsEntity;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.TransactionEntity;
+import com.example.entrevista_payment.infrastructure.mapper.TransactionMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Lee el change feed de transactions y mantiene customer-transactions (particionado por
+ * customerId): una fila por transaction y un documento de totales por cliente. La fila y
+ * el incremento de totales van en el mismo batch, asi un cambio repetido no suma dos veces.
+ * Usa un limitador propio topado en concurrency: un replay desde el principio no consume los
+ * permisos del pipeline ni frena las lecturas de la cola.
+ */
+@Slf4j
+@Component
+@Profile("!loadtest")
+@ConditionalOnProperty(value = "payment.customer-view.enabled", havingValue = "true", matchIfMissing = true)
+public class CustomerTransactionsProjector {
+
+    private static final int NOT_FOUND = 404;
+    private static final int CONFLICT = 409;
+
+    enum BatchOutcome { PROJECTED, DUPLICATE, CREATE_TOTALS, FAILED }
+
+    private final CosmosAsyncContainer transactionsContainer;
+    private final CosmosAsyncContainer customerContainer;
+    private final MappingCosmosConverter cosmosConverter;
+    private final TransactionMapper transactionMapper;
+    private final CosmosConcurrencyLimiter concurrencyLimiter;
+    private final String leaseContainerName;
+    private final String hostName;
+    private final int maxItems;
+    private final Duration pollDelay;
+    private final int concurrency;
+    private final Counter projected;
+    private final Counter duplicates;
+
+    private ChangeFeedProcessor processor;
+    private Disposable startup;
+
+    public CustomerTransactionsProjector(
+            @Qualifier("transactionsContainer") CosmosAsyncContainer transactionsContainer,
+            @Qualifier("customerTransactionsContainer") CosmosAsyncContainer customerContainer,
+            MappingCosmosConverter cosmosConverter,
+            TransactionMapper transactionMapper,
+            @Value("${payment.customer-view.lease-container:transactions-leases}") String leaseContainerName,
+            @Value("${payment.customer-view.host-name:${HOSTNAME:payment-processor}}") String hostName,
+            @Value("${payment.customer-view.max-items:100}") int maxItems,
+            @Value("${payment.customer-view.poll-delay-ms:1000}") long pollDelayMs,
+            @Value("${payment.customer-view.concurrency:8}") int concurrency,
+            MeterRegistry meterRegistry) {
+        this.transactionsContainer = transactionsContainer;
+        this.customerContainer = customerContainer;
+        this.cosmosConverter = cosmosConverter;
+        this.transactionMapper = transactionMapper;
+        this.concurrencyLimiter = CosmosConcurrencyLimiter.capped("customer-view", concurrency, meterRegistry);
+        this.leaseContainerName = leaseContainerName;
+        this.hostName = hostName;
+        this.maxItems = maxItems;
+        this.pollDelay = Duration.ofMillis(pollDelayMs);
+        this.concurrency = concurrency;
+        this.projected = Counter.builder("payment.customer.view.projected")
+                .description("Transactions copiadas a customer-transactions")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("payment.customer.view.duplicates")
+                .description("Cambios del feed que ya estaban proyectados")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        CosmosAsyncDatabase database = customerContainer.getDatabase();
+
+        ChangeFeedProcessorOptions options = new ChangeFeedProcessorOptions()
+                .setMaxItemCount(maxItems)
+                .setFeedPollDelay(pollDelay)
+                .setStartFromBeginning(true);
+
+        processor = new ChangeFeedProcessorBuilder()
+                .hostName(hostName)
+                .feedContainer(transactionsContainer)
+                .leaseContainer(database.getContainer(leaseContainerName))
+                .handleChanges(this::handleChanges)
+                .options(options)
+                .buildChangeFeedProcessor();
+
+        startup = database.createContainerIfNotExists(customerContainer.getId(), "/customerId")
+                .then(database.createContainerIfNotExists(leaseContainerName, "/id"))
+                .then(Mono.defer(processor::start))
+                .subscribe(
+                        v -> {},
+                        error -> log.error("No se pudo iniciar el change feed de customer-transactions: {}",
+                                error.getMessage()),
+                        () -> log.info("Change feed customer-transactions iniciado ({})", hostName)
+                );
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (startup != null) {
+            startup.dispose();
+        }
+        if (processor != null && processor.isStarted()) {
+            processor.stop().block(Duration.ofSeconds(10));
+        }
+    }
+
+    // El processor solo avanza el checkpoint si este metodo termina sin error
+    private void handleChanges(List<JsonNode> changes) {
+        Flux.fromIterable(changes)
+                .map(node -> transactionMapper.toDomain(cosmosConverter.read(TransactionEntity.class, node)))
+                .flatMap(transaction -> project(transaction, false), concurrency)
+                .doOnError(e -> log.error("Error proyectando {} cambios de transactions: {}",
+                        changes.size(), e.getMessage()))
+                .blockLast();
+    }
+
+    private Mono<Void> project(Transaction transaction, boolean totalsCreated) {
+        return concurrencyLimiter.execute(() -> customerContainer.executeCosmosBatch(batch(transaction)))
+                .flatMap(response -> switch (outcomeOf(response.isSuccessStatusCode(), statusOf(response, 0),
+                        statusOf(response, 1), totalsCreated)) {
+                    case PROJECTED -> {
+                        projected.increment();
+                        yield Mono.<Void>empty();
+                    }
+                    case DUPLICATE -> {
+                        duplicates.increment();
+                        yield Mono.<Void>empty();
+                    }
+                    case CREATE_TOTALS -> createTotals(transaction).then(project(transaction, true));
+                    case FAILED -> Mono.<Void>error(new PaymentProcessingException(
+                            "Cosmos batch customer-transactions status " + response.getStatusCode()));
+                });
+    }
+
+    /**
+     * La fila (operacion 0) en 409 es un cambio ya proyectado: el batch es atomico, asi que sus
+     * totales ya se sumaron. Los totales (operacion 1) en 404 se crean y se reintenta una sola vez.
+     */
+    static BatchOutcome outcomeOf(boolean success, int rowStatus, int totalsStatus, boolean totalsCreated) {
+        if (success) {
+            return BatchOutcome.PROJECTED;
+        }
+        if (rowStatus == CONFLICT) {
+            return BatchOutcome.DUPLICATE;
+        }
+        if (totalsStatus == NOT_FOUND && !totalsCreated) {
+            return BatchOutcome.CREATE_TOTALS;
+        }
+        return BatchOutcome.FAILED;
+    }
+
+    private CosmosBatch batch(Transaction transaction) {
+        CosmosBatch batch = CosmosBatch.createCosmosBatch(partitionKey(transaction));
+        batch.createItemOperation(cosmosConverter.writeJsonNode(transactionMapper.toCustomerEntity(transaction)));
+        batch.patchItemOperation(CustomerTotalsEntity.ID, CosmosPatchOperations.create()
+                .increment("/count", 1)
+                .increment("/amountMinor", transaction.getAmount().getMinorUnits())
+                .set("/updatedAt", Instant.now().toString()));
+        return batch;
+    }
+
+    private Mono<Void> createTotals(Transaction transaction) {
+        CustomerTotalsEntity totals = CustomerTotalsEntity.builder()
+                .id(CustomerTotalsEntity.ID)
+                .customerId(transaction.getCustomerId().getValue())
+                .type(CustomerTotalsEntity.TYPE)
+                .updatedAt(Instant.now())
+                .build();
+        return customerContainer.createItem(cosmosConverter.writeJsonNode(totals), partitionKey(transaction),
+                        new CosmosItemRequestOptions())
+                .then()
+                .onErrorResume(e -> e instanceof CosmosException cosmosException
+                        && cosmosException.getStatusCode() == CONFLICT, e -> Mono.empty());
+    }
+
+    private int statusOf(CosmosBatchResponse response, int index) {
+        return response.getResults().size() > index
+                ? response.getResults().get(index).getStatusCode()
+                : response.getStatusCode();
+    }
+
+    private PartitionKey partitionKey(Transaction transaction) {
+        return new PartitionKey(transaction.getCustomerId().getValue());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Near cache LRU con TTL de las ultimas transactions guardadas o leidas. Sirve tanto
+ * para saltar escrituras repetidas como para responder lookups sin ir a Cosmos.
+ */
+@Component
+public class RecentTransactionCache {
+
+    private final Map<OrderId, Entry> transactions;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public RecentTransactionCache(@Value("${payment.idempotency.cache-size:10000}") int maxSize,
+                                  @Value("${payment.idempotency.cache-ttl-ms:600000}") long ttlMs,
+                                  MeterRegistry meterRegistry) {
+        this(maxSize, Duration.ofMillis(ttlMs), System::nanoTime, meterRegistry);
+    }
+
+    RecentTransactionCache(int maxSize, Duration ttl, LongSupplier ticker, MeterRegistry meterRegistry) {
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        this.transactions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<OrderId, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = Counter.builder("payment.transaction.cache.requests")
+                .description("Lookups de transaction contra el near cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("payment.transaction.cache.requests")
+                .description("Lookups de transaction contra el near cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("payment.transaction.cache.size", this, RecentTransactionCache::size)
+                .description("Transactions en el near cache")
+                .register(meterRegistry);
+    }
+
+    public synchronized Optional<Transaction> get(OrderId orderId) {
+        Entry entry = transactions.get(orderId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (ticker.getAsLong() - entry.cachedAt > ttlNanos) {
+            transactions.remove(orderId);
+            return Optional.empty();
+        }
+        return Optional.of(entry.transaction);
+    }
+
+    public Optional<Transaction> lookup(OrderId orderId) {
+        Optional<Transaction> cached = get(orderId);
+        (cached.isPresent() ? hits : misses).increment();
+        return cached;
+    }
+
+    public synchronized void put(Transaction transaction) {
+        transactions.put(transaction.getOrderId(), new Entry(transaction, ticker.getAsLong()));
+    }
+
+    public synchronized int size() {
+        return transactions.size();
+    }
+
+    private static final class Entry {
+        private final Transaction transaction;
+        private final long cachedAt;
+
+        private Entry(Transaction transaction, long cachedAt) {
+            this.transaction = transaction;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.TransactionAggregate;
+import com.example.entrevista_payment.domain.model.valueobjects.AggregateGranularity;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.model.valueobjects.TransactionStatus;
+import com.example.entrevista_payment.domain.port.out.TransactionAggregateRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agregados por minuto y status de las transactions guardadas. Los ultimos minutos viven
+ * en un ring buffer sin locks; los minutos cerrados se suman a Cosmos (minuto, hora y dia)
+ * y las lecturas combinan lo persistido con lo que aun no se hizo checkpoint. Cada checkpoint
+ * manda solo el delta desde el anterior con un numero de secuencia por minuto, asi lo que
+ * llega despues de un checkpoint (o del cierre en stop) entra en el siguiente.
+ */
+@Slf4j
+@Component
+public class TransactionAggregator implements TransactionAggregateRepository {
+
+    private static final long MINUTE_MS = Duration.ofMinutes(1).toMillis();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final AggregateCheckpointStore checkpointStore;
+    private final AtomicReferenceArray<MinuteBucket> ring;
+    private final Queue<MinuteBucket> evicted = new ConcurrentLinkedQueue<>();
+    private final String writerId = UUID.randomUUID().toString();
+    private final Duration checkpointInterval;
+    private final long closeDelayMs;
+    private final Clock clock;
+    private final Counter checkpointed;
+    private final Counter lateRecords;
+
+    private Disposable checkpointer;
+
+    @Autowired
+    public TransactionAggregator(
+            AggregateCheckpointStore checkpointStore,
+            @Value("${payment.aggregates.window-minutes:120}") int windowMinutes,
+            @Value("${payment.aggregates.checkpoint-interval-ms:10000}") long checkpointIntervalMs,
+            @Value("${payment.aggregates.close-delay-ms:5000}") long closeDelayMs,
+            MeterRegistry meterRegistry) {
+        this(checkpointStore, windowMinutes, Duration.ofMillis(checkpointIntervalMs), closeDelayMs,
+                Clock.systemUTC(), meterRegistry);
+    }
+
+    TransactionAggregator(AggregateCheckpointStore checkpointStore, int windowMinutes, Duration checkpointInterval,
+                          long closeDelayMs, Clock clock, MeterRegistry meterRegistry) {
+        this.checkpointStore = checkpointStore;
+        this.ring = new AtomicReferenceArray<>(windowMinutes);
+        this.checkpointInterval = checkpointInterval;
+        this.closeDelayMs = closeDelayMs;
+        this.clock = clock;
+        this.checkpointed = Counter.builder("payment.aggregates.checkpoints")
+                .description("Deltas de agregados por minuto persistidos en Cosmos")
+                .register(meterRegistry);
+        this.lateRecords = Counter.builder("payment.aggregates.late")
+                .description("Transactions sumadas a un minuto que ya tenia checkpoint")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        checkpointer = Flux.interval(checkpointInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> checkpoint(false))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (checkpointer != null) {
+            checkpointer.dispose();
+        }
+        checkpoint(true).block(Duration.ofSeconds(10));
+    }
+
+    public void record(Transaction transaction) {
+        long startMs = Math.floorDiv(clock.millis(), MINUTE_MS) * MINUTE_MS;
+        int slot = (int) Math.floorMod(startMs / MINUTE_MS, (long) ring.length());
+
+        MinuteBucket bucket = ring.get(slot);
+        while (bucket == null || bucket.startMs < startMs) {
+            MinuteBucket fresh = new MinuteBucket(startMs);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                if (bucket != null && bucket.hasUnflushed()) {
+                    evicted.add(bucket);
+                }
+                bucket = fresh;
+            } else {
+                bucket = ring.get(slot);
+            }
+        }
+        if (bucket.hasFlushed()) {
+            lateRecords.increment();
+        }
+        bucket.add(transaction.getStatus(), transaction.getAmount().getMinorUnits());
+    }
+
+    @Override
+    public Flux<TransactionAggregate> findAggregates(AggregateGranularity granularity, Instant from, Instant to) {
+        return checkpointStore.find(granularity, from, to)
+                .concatWith(Flux.defer(() -> Flux.fromIterable(pendingBuckets())
+                        .filter(bucket -> !bucket.start().isBefore(from) && bucket.start().isBefore(to))
+                        .flatMapIterable(bucket -> bucket.unflushed(granularity))))
+                .collect(LinkedHashMap<String, TransactionAggregate>::new, (merged, aggregate) -> merged.merge(
+                        aggregate.getBucketStart().toEpochMilli() + ":" + aggregate.getStatus(),
+                        aggregate, TransactionAggregate::merge))
+                .flatMapIterable(merged -> merged.values().stream()
+                        .sorted(Comparator.comparing(TransactionAggregate::getBucketStart)
+                                .thenComparing(TransactionAggregate::getStatus))
+                        .toList());
+    }
+
+    Mono<Void> checkpoint(boolean includeOpen) {
+        return Flux.defer(() -> {
+                    long nowMs = clock.millis();
+                    List<MinuteBucket> ready = new ArrayList<>();
+                    MinuteBucket old;
+                    while ((old = evicted.poll()) != null) {
+                        ready.add(old);
+                    }
+                    for (MinuteBucket bucket : pendingRing()) {
+                        if (includeOpen || nowMs >= bucket.startMs + MINUTE_MS + closeDelayMs) {
+                            ready.add(bucket);
+                        }
+                    }
+                    return Flux.fromIterable(ready);
+                })
+                .concatMap(bucket -> flush(bucket)
+                        .onErrorResume(e -> {
+                            log.warn("No se pudo guardar agregados del minuto {}: {}", bucket.start(), e.getMessage());
+                            if (ring.get(slotOf(bucket)) != bucket) {
+                                evicted.add(bucket);
+                            }
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    // Un flush fallido queda pendiente y se reintenta igual (misma secuencia y delta): si ya se
+    // habia aplicado, el marcador lo descarta; lo que llego mientras tanto va en la secuencia siguiente
+    private Mono<Void> flush(MinuteBucket bucket) {
+        return Mono.defer(() -> {
+            Flush flush = bucket.nextFlush();
+            if (flush == null) {
+                return Mono.empty();
+            }
+            return checkpointStore.checkpoint(writerId, bucket.start(), flush.sequence, bucket.delta(flush))
+                    .doOnSuccess(v -> {
+                        bucket.flushed(flush);
+                        checkpointed.increment();
+                    });
+        });
+    }
+
+    private List<MinuteBucket> pendingBuckets() {
+        List<MinuteBucket> pending = pendingRing();
+        evicted.stream().filter(MinuteBucket::hasUnflushed).forEach(pending::add);
+        return pending;
+    }
+
+    private List<MinuteBucket> pendingRing() {
+        List<MinuteBucket> pending = new ArrayList<>();
+        for (int i = 0; i < ring.length(); i++) {
+            MinuteBucket bucket = ring.get(i);
+            if (bucket != null && bucket.hasUnflushed()) {
+                pending.add(bucket);
+            }
+        }
+        return pending;
+    }
+
+    private int slotOf(MinuteBucket bucket) {
+        return (int) Math.floorMod(bucket.startMs / MINUTE_MS, (long) ring.length());
+    }
+
+    private static final class MinuteBucket {
+        private final long startMs;
+        private final LongAdder[] counts = new LongAdder[STATUSES.length];
+        private final LongAdder[] amounts = new LongAdder[STATUSES.length];
+        // Lo ya sumado en Cosmos y el flush en curso; el registro de transactions no los toca
+        private final long[] flushedCounts = new long[STATUSES.length];
+        private final long[] flushedAmounts = new long[STATUSES.length];
+        private long sequence;
+        private Flush pending;
+
+        private MinuteBucket(long startMs) {
+            this.startMs = startMs;
+            for (int i = 0; i < STATUSES.length; i++) {
+                counts[i] = new LongAdder();
+                amounts[i] = new LongAdder();
+            }
+        }
+
+        private Instant start() {
+            return Instant.ofEpochMilli(startMs);
+        }
+
+        private void add(TransactionStatus status, long amountMinor) {
+            counts[status.ordinal()].increment();
+            amounts[status.ordinal()].add(amountMinor);
+        }
+
+        private synchronized boolean hasFlushed() {
+            return sequence > 0;
+        }
+
+        private synchronized boolean hasUnflushed() {
+            if (pending != null) {
+                return true;
+            }
+            for (int i = 0; i < STATUSES.length; i++) {
+                if (counts[i].sum() != flushedCounts[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized Flush nextFlush() {
+            if (pending == null && hasUnflushed()) {
+                long[] snapshotCounts = new long[STATUSES.length];
+                long[] snapshotAmounts = new long[STATUSES.length];
+                for (int i = 0; i < STATUSES.length; i++) {
+                    snapshotCounts[i] = counts[i].sum();
+                    snapshotAmounts[i] = amounts[i].sum();
+                }
+                pending = new Flush(sequence + 1, snapshotCounts, snapshotAmounts);
+            }
+            return pending;
+        }
+
+        private synchronized void flushed(Flush flush) {
+            if (flush.sequence <= sequence) {
+                return;
+            }
+            System.arraycopy(flush.counts, 0, flushedCounts, 0, STATUSES.length);
+            System.arraycopy(flush.amounts, 0, flushedAmounts, 0, STATUSES.length);
+            sequence = flush.sequence;
+            pending = null;
+        }
+
+        private synchronized List<TransactionAggregate> delta(Flush flush) {
+            return aggregates(AggregateGranularity.MINUTE, flush.counts, flush.amounts);
+        }
+
+        private synchronized List<TransactionAggregate> unflushed(AggregateGranularity granularity) {
+            long[] currentCounts = new long[STATUSES.length];
+            long[] currentAmounts = new long[STATUSES.length];
+            for (int i = 0; i < STATUSES.length; i++) {
+                currentCounts[i] = counts[i].sum();
+                currentAmounts[i] = amounts[i].sum();
+            }
+            return aggregates(granularity, currentCounts, currentAmounts);
+        }
+
+        private List<TransactionAggregate> aggregates(AggregateGranularity granularity, long[] totalCounts,
+                                                      long[] totalAmounts) {
+            List<TransactionAggregate> aggregates = new ArrayList<>(STATUSES.length);
+            for (TransactionStatus status : STATUSES) {
+                int i = status.ordinal();
+                long count = totalCounts[i] - flushedCounts[i];
+                if (count > 0) {
+                    aggregates.add(new TransactionAggregate(granularity, granularity.truncate(start()), status,
+                            count, Money.ofMinor(totalAmounts[i] - flushedAmounts[i])));
+                }
+            }
+            return aggregates;
+        }
+    }
+
+    private static final class Flush {
+        private final long sequence;
+        private final long[] counts;
+        private final long[] amounts;
+
+        private Flush(long sequence, long[] counts, long[] amounts) {
+            this.sequence = sequence;
+            this.counts = counts;
+            this.amounts = amounts;
+        }
+    }
+}
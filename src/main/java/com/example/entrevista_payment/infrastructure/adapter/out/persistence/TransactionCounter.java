@@ -0,0 +1,87 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import com.example.entrevista_payment.domain.model.TransactionCount;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.cosmos.CosmosTransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+@Profile("!loadtest")
+public class TransactionCounter {
+
+    private final CosmosTransactionRepository cosmosRepository;
+    private final Duration reconcileInterval;
+    private final LongAdder sinceReconcile = new LongAdder();
+
+    private volatile long reconciledCount;
+    private volatile Instant reconciledAt;
+    private Disposable reconciler;
+
+    public TransactionCounter(
+            CosmosTransactionRepository cosmosRepository,
+            @Value("${payment.counter.reconcile-interval-ms:300000}") long reconcileIntervalMs) {
+        this.cosmosRepository = cosmosRepository;
+        this.reconcileInterval = Duration.ofMillis(reconcileIntervalMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        reconciler = Flux.interval(Duration.ZERO, reconcileInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> reconcile()
+                        .onErrorResume(e -> {
+                            log.warn("No se pudo reconciliar contador de transacciones: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reconciler != null) {
+            reconciler.dispose();
+        }
+    }
+
+    public void increment() {
+        sinceReconcile.increment();
+    }
+
+    public Mono<TransactionCount> snapshot() {
+        if (reconciledAt == null) {
+            return reconcile().then(Mono.fromSupplier(this::currentSnapshot));
+        }
+        return Mono.just(currentSnapshot());
+    }
+
+    private TransactionCount currentSnapshot() {
+        return new TransactionCount(reconciledCount + sinceReconcile.sum(), reconciledAt);
+    }
+
+    private Mono<Void> reconcile() {
+        return Mono.defer(() -> {
+            long pending = sinceReconcile.sum();
+            Instant startedAt = Instant.now();
+            return cosmosRepository.count()
+                    .doOnNext(count -> {
+                        reconciledCount = count;
+                        sinceReconcile.add(-pending);
+                        reconciledAt = startedAt;
+                        log.debug("Contador de transacciones reconciliado: {}", count);
+                    })
+                    .then();
+        });
+    }
+}
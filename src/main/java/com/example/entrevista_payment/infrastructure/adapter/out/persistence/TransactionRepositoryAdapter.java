@@ -1,34 +1,282 @@
 package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
 
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.CosmosBulkOperationResponse;
+import com.azure.cosmos.models.CosmosBulkOperations;
+import com.azure.cosmos.models.CosmosItemOperation;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.azure.spring.data.cosmos.core.convert.MappingCosmosConverter;
+import com.example.entrevista_payment.domain.exception.PaymentProcessingException;
 import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.TransactionCount;
+import com.example.entrevista_payment.domain.model.TransactionPage;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import com.example.entrevista_payment.domain.model.valueobjects.TransactionId;
 import com.example.entrevista_payment.domain.port.out.TransactionRepository;
 import com.example.entrevista_payment.infrastructure.adapter.out.persistence.cosmos.CosmosTransactionRepository;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.TransactionEntity;
 import com.example.entrevista_payment.infrastructure.mapper.TransactionMapper;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Slf4j
 @Component
-@RequiredArgsConstructor
+@Profile("!loadtest")
 public class TransactionRepositoryAdapter implements TransactionRepository {
 
+    private static final int CONFLICT = 409;
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final String EXPORT_QUERY =
+            "SELECT * FROM c WHERE c.timestamp >= @from AND c.timestamp < @to";
+
     private final CosmosTransactionRepository cosmosRepository;
+    private final CosmosAsyncContainer transactionsContainer;
+    private final MappingCosmosConverter cosmosConverter;
     private final TransactionMapper transactionMapper;
+    private final RecentTransactionCache recentTransactions;
+    private final TransactionCounter transactionCounter;
+    private final TransactionAggregator transactionAggregator;
+    private final CosmosConcurrencyLimiter concurrencyLimiter;
+    private final MeterRegistry meterRegistry;
+    private final Timer saveTimer;
+    private final Timer bulkTimer;
+    private final Timer cacheReadTimer;
+    private final Timer pointReadTimer;
+    private final DistributionSummary requestCharge;
+    private final Counter exportPages;
+
+    public TransactionRepositoryAdapter(CosmosTransactionRepository cosmosRepository,
+                                        CosmosAsyncContainer transactionsContainer,
+                                        MappingCosmosConverter cosmosConverter,
+                                        TransactionMapper transactionMapper,
+                                        RecentTransactionCache recentTransactions,
+                                        TransactionCounter transactionCounter,
+                                        TransactionAggregator transactionAggregator,
+                                        CosmosConcurrencyLimiter concurrencyLimiter,
+                                        MeterRegistry meterRegistry) {
+        this.cosmosRepository = cosmosRepository;
+        this.transactionsContainer = transactionsContainer;
+        this.cosmosConverter = cosmosConverter;
+        this.transactionMapper = transactionMapper;
+        this.recentTransactions = recentTransactions;
+        this.transactionCounter = transactionCounter;
+        this.transactionAggregator = transactionAggregator;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.meterRegistry = meterRegistry;
+        this.saveTimer = Timer.builder("payment.cosmos.save")
+                .description("Latencia de guardar una transaction en Cosmos")
+                .register(meterRegistry);
+        this.bulkTimer = Timer.builder("payment.cosmos.bulk")
+                .description("Latencia de un saveAll completo con Cosmos bulk")
+                .register(meterRegistry);
+        this.cacheReadTimer = Timer.builder("payment.transaction.lookup")
+                .description("Latencia de buscar una transaction por orderId")
+                .tag("source", "cache")
+                .register(meterRegistry);
+        this.pointReadTimer = Timer.builder("payment.transaction.lookup")
+                .description("Latencia de buscar una transaction por orderId")
+                .tag("source", "cosmos")
+                .register(meterRegistry);
+        this.requestCharge = DistributionSummary.builder("payment.cosmos.request.charge")
+                .description("RU consumidas por cada escritura de transaction")
+                .baseUnit("RU")
+                .register(meterRegistry);
+        this.exportPages = Counter.builder("payment.cosmos.export.pages")
+                .description("Paginas de transactions leidas por exports")
+                .register(meterRegistry);
+    }
 
     @Override
     public Mono<Transaction> save(Transaction transaction) {
-        return Mono.just(transaction)
-                .map(transactionMapper::toEntity)
-                .flatMap(cosmosRepository::save)
-                .map(transactionMapper::toDomain)
+        var cached = recentTransactions.get(transaction.getOrderId());
+        if (cached.isPresent()) {
+            log.debug("Order {} ya procesada, se omite escritura", transaction.getOrderId());
+            return Mono.just(cached.get());
+        }
+
+        return Mono.defer(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    return Mono.fromCallable(() -> cosmosConverter.writeJsonNode(transactionMapper.toEntity(transaction)))
+                            .flatMap(item -> concurrencyLimiter.execute(() -> transactionsContainer.createItem(
+                                    item, partitionKey(transaction), new CosmosItemRequestOptions())))
+                            .doFinally(signal -> sample.stop(saveTimer));
+                })
+                .doOnSuccess(response -> {
+                    requestCharge.record(response.getRequestCharge());
+                    transactionCounter.increment();
+                    transactionAggregator.record(transaction);
+                })
+                .doOnError(CosmosException.class, e -> requestCharge.record(e.getRequestCharge()))
+                .thenReturn(transaction)
+                .onErrorResume(this::isConflict, e -> {
+                    log.info("Order {} ya tenia transaction, se reutiliza", transaction.getOrderId());
+                    return findExisting(transaction);
+                })
+                .doOnSuccess(recentTransactions::put)
                 .doOnSuccess(t -> log.debug("Transaction guardado: {}", t.getId()))
                 .doOnError(e -> log.error("Erro guardando transaction: {}", e.getMessage()));
     }
 
+    @Override
+    public Flux<SaveResult> saveAll(Flux<Transaction> transactions) {
+        return transactions
+                .groupBy(t -> recentTransactions.get(t.getOrderId()).isPresent())
+                .flatMap(group -> group.key()
+                        ? group.map(this::alreadyProcessed)
+                        : group.collectList().flatMapMany(this::createAll));
+    }
+
+    @Override
+    public Mono<Transaction> findByOrderId(OrderId orderId) {
+        long start = System.nanoTime();
+        var cached = recentTransactions.lookup(orderId);
+        if (cached.isPresent()) {
+            cacheReadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Mono.just(cached.get());
+        }
+
+        return Mono.defer(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    return cosmosRepository.findById(TransactionId.forOrder(orderId).getValue(),
+                                    new PartitionKey(orderId.getValue()))
+                            .doFinally(signal -> sample.stop(pointReadTimer));
+                })
+                .map(transactionMapper::toDomain)
+                .doOnNext(recentTransactions::put);
+    }
+
+    @Override
+    public Flux<TransactionPage> findPages(Instant from, Instant to, int pageSize, String continuationToken) {
+        SqlQuerySpec query = new SqlQuerySpec(EXPORT_QUERY,
+                new SqlParameter("@from", epochSeconds(from)),
+                new SqlParameter("@to", epochSeconds(to)));
+
+        // limitRate(1): solo se pide la siguiente pagina a Cosmos cuando el cliente consumio la anterior
+        return transactionsContainer.queryItems(query, new CosmosQueryRequestOptions(), JsonNode.class)
+                .byPage(continuationToken, pageSize)
+                .limitRate(1)
+                .doOnNext(page -> {
+                    exportPages.increment();
+                    requestCharge.record(page.getRequestCharge());
+                })
+                .map(page -> new TransactionPage(page.getResults().stream()
+                        .map(node -> transactionMapper.toDomain(cosmosConverter.read(TransactionEntity.class, node)))
+                        .toList(), page.getContinuationToken()));
+    }
+
     @Override
     public Mono<Long> count() {
         return cosmosRepository.count();
     }
-}
\ No newline at end of file
+
+    @Override
+    public Mono<TransactionCount> currentCount() {
+        return transactionCounter.snapshot();
+    }
+
+    private Flux<SaveResult> createAll(List<Transaction> transactions) {
+        return Flux.defer(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    return concurrencyLimiter.executeMany(transactions.size(), () -> transactionsContainer
+                                    .<Transaction>executeBulkOperations(Flux.fromIterable(transactions)
+                                            .map(this::toCreateOperation)))
+                            .doFinally(signal -> sample.stop(bulkTimer));
+                })
+                .doOnNext(response -> {
+                    if (response.getResponse() != null) {
+                        requestCharge.record(response.getResponse().getRequestCharge());
+                        if (response.getResponse().getStatusCode() == TOO_MANY_REQUESTS) {
+                            concurrencyLimiter.onThrottle(response.getResponse().getRetryAfterDuration());
+                        }
+                    }
+                })
+                .flatMap(this::toSaveResult)
+                .doOnNext(result -> {
+                    if (result.isSuccess()) {
+                        recentTransactions.put(result.getTransaction());
+                        log.debug("Transaction guardado: {}", result.getTransaction().getId());
+                    } else {
+                        log.error("Erro guardando transaction {}: {}",
+                                result.getTransaction().getId(), result.getError().getMessage());
+                    }
+                });
+    }
+
+    private SaveResult alreadyProcessed(Transaction transaction) {
+        log.debug("Order {} ya procesada, se omite escritura", transaction.getOrderId());
+        return SaveResult.success(recentTransactions.get(transaction.getOrderId()).orElse(transaction));
+    }
+
+    private Mono<Transaction> findExisting(Transaction transaction) {
+        return cosmosRepository.findById(transaction.getId().getValue(), partitionKey(transaction))
+                .map(transactionMapper::toDomain)
+                .defaultIfEmpty(transaction);
+    }
+
+    private CosmosItemOperation toCreateOperation(Transaction transaction) {
+        return CosmosBulkOperations.getCreateItemOperation(
+                cosmosConverter.writeJsonNode(transactionMapper.toEntity(transaction)),
+                partitionKey(transaction),
+                transaction);
+    }
+
+    private Mono<SaveResult> toSaveResult(CosmosBulkOperationResponse<Transaction> response) {
+        Transaction transaction = response.getOperation().getContext();
+
+        if (response.getException() != null) {
+            return isConflict(response.getException())
+                    ? existingResult(transaction)
+                    : Mono.just(SaveResult.failure(transaction, response.getException()));
+        }
+        if (response.getResponse().getStatusCode() == CONFLICT) {
+            return existingResult(transaction);
+        }
+        if (!response.getResponse().isSuccessStatusCode()) {
+            return Mono.just(SaveResult.failure(transaction, new PaymentProcessingException(
+                    "Cosmos bulk status " + response.getResponse().getStatusCode())));
+        }
+        transactionCounter.increment();
+        transactionAggregator.record(transaction);
+        return Mono.just(SaveResult.success(transaction));
+    }
+
+    // Igual que save: con 409 se devuelve la transaction guardada, no la nueva en memoria
+    private Mono<SaveResult> existingResult(Transaction transaction) {
+        log.info("Order {} ya tenia transaction, se reutiliza", transaction.getOrderId());
+        return findExisting(transaction)
+                .map(SaveResult::success)
+                .onErrorResume(e -> Mono.just(SaveResult.failure(transaction, e)));
+    }
+
+    // MappingCosmosConverter guarda Instant como segundos epoch con decimales
+    private static double epochSeconds(Instant instant) {
+        return BigDecimal.valueOf(instant.getEpochSecond()).add(BigDecimal.valueOf(instant.getNano(), 9)).doubleValue();
+    }
+
+    private PartitionKey partitionKey(Transaction transaction) {
+        return new PartitionKey(transaction.getOrderId().getValue());
+    }
+
+    private boolean isConflict(Throwable e) {
+        return e instanceof CosmosException cosmosException
+                && cosmosException.getStatusCode() == CONFLICT;
+    }
+}
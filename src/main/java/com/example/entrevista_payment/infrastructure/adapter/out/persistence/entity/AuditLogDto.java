@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
 
@@ -29,7 +30,7 @@ public class AuditLogDto {
         private String id;
         private String orderId;
         private String customerId;
-        private Double amount;
+        private BigDecimal amount;
         private String status;
         private Instant timestamp;
         private Instant processedAt;
@@ -0,0 +1,32 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity;
+
+import com.azure.spring.data.cosmos.core.mapping.Container;
+import com.azure.spring.data.cosmos.core.mapping.PartitionKey;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Container(containerName = "customer-transactions")
+public class CustomerTotalsEntity {
+    public static final String ID = "totals";
+    public static final String TYPE = "totals";
+
+    @Id
+    private String id;
+
+    @PartitionKey
+    private String customerId;
+
+    private String type;
+    private long count;
+    private long amountMinor;
+    private Instant updatedAt;
+}
@@ -3,6 +3,8 @@ package com.example.entrevista_payment.infrastructure.adapter.out.persistence.en
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
 import java.util.List;
 
 @Data
@@ -12,7 +14,7 @@ public class OrderDto {
     private String orderId;
     private String customerId;
     private List<ItemDto> items;
-    private Double totalAmount;
+    private BigDecimal totalAmount;
 
     @Data
     @NoArgsConstructor
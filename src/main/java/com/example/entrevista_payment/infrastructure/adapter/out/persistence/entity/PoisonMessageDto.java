@@ -0,0 +1,22 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PoisonMessageDto {
+    private String messageId;
+    private String reason;
+    private long dequeueCount;
+    private Instant failedAt;
+    private String messageText;
+    private int messageTextBytes;
+    private boolean messageTextTruncated;
+}
@@ -0,0 +1,28 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity;
+
+import com.azure.spring.data.cosmos.core.mapping.Container;
+import com.azure.spring.data.cosmos.core.mapping.PartitionKey;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Container(containerName = "transaction-aggregates")
+public class TransactionAggregateEntity {
+    @Id
+    private String id;
+
+    @PartitionKey
+    private String day;
+
+    private String granularity;
+    private long bucketStart;
+    private String status;
+    private long count;
+    private long amountMinor;
+}
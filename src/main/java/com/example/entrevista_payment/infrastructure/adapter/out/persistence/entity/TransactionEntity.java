@@ -24,6 +24,7 @@ public class TransactionEntity {
 
     private String customerId;
     private Double amount;
+    private Long amountMinor;
     private String status;
     private Instant timestamp;
     private Instant processedAt;
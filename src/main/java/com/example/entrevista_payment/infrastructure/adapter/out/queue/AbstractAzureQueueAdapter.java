@@ -0,0 +1,215 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.azure.storage.queue.models.QueueMessageItem;
+import com.azure.storage.queue.models.UpdateMessageResult;
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.port.out.OrderQueuePort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Slf4j
+abstract class AbstractAzureQueueAdapter implements OrderQueuePort {
+
+    protected static final int MAX_MESSAGES = 10;
+
+    private final OrderPayloadParser payloadParser;
+    private final QueueLeaseRenewer leaseRenewer;
+    private final QueuePrefetcher prefetcher;
+    private final PoisonMessageWriter poisonWriter;
+    private final long maxDequeueCount;
+    private final MeterRegistry meterRegistry;
+    private final List<QueueShard> shards;
+    private final Counter parseFailures;
+    private final Counter poisoned;
+
+    protected AbstractAzureQueueAdapter(List<String> queueNames, OrderPayloadParser payloadParser,
+                                        QueueLeaseRenewer leaseRenewer, QueuePrefetcher prefetcher,
+                                        PoisonMessageWriter poisonWriter, long maxDequeueCount,
+                                        MeterRegistry meterRegistry) {
+        this.payloadParser = payloadParser;
+        this.leaseRenewer = leaseRenewer;
+        this.prefetcher = prefetcher;
+        this.poisonWriter = poisonWriter;
+        this.maxDequeueCount = maxDequeueCount;
+        this.meterRegistry = meterRegistry;
+        this.shards = QueueShard.fromSpecs(queueNames,
+                prefetcher.isEnabled() ? QueuePrefetcher.MAX_RECEIVE : MAX_MESSAGES, meterRegistry);
+        this.parseFailures = Counter.builder("payment.queue.parse.failures")
+                .description("Mensajes que no se pudieron convertir en Order")
+                .register(meterRegistry);
+        this.poisoned = Counter.builder("payment.queue.poison")
+                .description("Mensajes movidos a la cola poison")
+                .register(meterRegistry);
+    }
+
+    protected abstract Flux<QueueMessageItem> receiveItems(String queueName, int maxMessages,
+                                                           Duration visibilityTimeout);
+
+    protected abstract Mono<UpdateMessageResult> updateVisibility(String queueName, String messageId,
+                                                                  String popReceipt, Duration visibilityTimeout);
+
+    protected abstract Mono<Void> delete(String queueName, String messageId, String popReceipt);
+
+    protected abstract Mono<Void> sendToPoison(String messageText);
+
+    protected List<String> queueNames() {
+        return shards.stream().map(QueueShard::getQueueName).toList();
+    }
+
+    @Override
+    public Mono<ReceivedMessages> receiveMessages() {
+        if (prefetcher.isEnabled()) {
+            // El lease arranca al leer, asi el buffer del prefetch no deja vencer la visibilidad
+            prefetcher.start(shards, shard -> receiveFromShard(shard).doOnNext(this::track), this::abandon);
+            return prefetcher.drain(QueuePrefetcher.MAX_RECEIVE)
+                    .collectList()
+                    .map(messages -> new ReceivedMessages(messages, messages.size(),
+                            messages.size() == QueuePrefetcher.MAX_RECEIVE));
+        }
+        return Flux.fromIterable(shards)
+                .flatMap(this::receiveFromShard, shards.size())
+                .doOnNext(this::track)
+                .collectList()
+                .map(batches -> new ReceivedMessages(
+                        batches.stream().flatMap(batch -> batch.getMessages().stream()).toList(),
+                        batches.stream().mapToInt(ShardBatch::getReceived).sum(),
+                        batches.stream().anyMatch(ShardBatch::isFull)));
+    }
+
+    private Mono<ShardBatch> receiveFromShard(QueueShard shard) {
+        return Mono.defer(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    return receiveItems(shard.getQueueName(), shard.getMaxMessages(),
+                            leaseRenewer.getVisibilityTimeout())
+                            .collectList()
+                            .doOnNext(items -> {
+                                sample.stop(shard.getReceiveTimer());
+                                shard.getBatchSize().record(items.size());
+                                shard.getReceived().increment(items.size());
+                                if (items.isEmpty()) {
+                                    shard.getEmptyPolls().increment();
+                                }
+                            });
+                })
+                .flatMap(items -> Flux.fromIterable(items)
+                        .concatMap(item -> toQueueMessage(shard, item))
+                        .doOnNext(msg -> log.debug("Message recibido: {} ({})", msg.getMessageId(), shard.getQueueName()))
+                        .collectList()
+                        .map(messages -> new ShardBatch(shard, messages, items.size())))
+                .onErrorResume(e -> {
+                    log.error("Error recibiendo mensaje de queue {}: {}", shard.getQueueName(), e.getMessage());
+                    return Mono.just(ShardBatch.empty(shard));
+                });
+    }
+
+    @Override
+    public Mono<Void> deleteMessage(QueueMessage message) {
+        AzureQueueMessage azureMessage = (AzureQueueMessage) message;
+        leaseRenewer.release(azureMessage);
+
+        return azureMessage.getPendingRenewal()
+                .then(Mono.defer(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    return delete(azureMessage.getShard().getQueueName(), azureMessage.getMessageId(),
+                            azureMessage.getPopReceipt())
+                            .doFinally(signal -> sample.stop(azureMessage.getShard().getDeleteTimer()));
+                }))
+                .doOnSuccess(v -> log.debug("Message {} eliminar msm cola", message.getMessageId()))
+                .onErrorResume(e -> {
+                    log.error("Error eliminando msm {}: {}", message.getMessageId(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public Mono<Void> deadLetter(QueueMessage message, String reason) {
+        AzureQueueMessage azureMessage = (AzureQueueMessage) message;
+        leaseRenewer.release(azureMessage);
+
+        return azureMessage.getPendingRenewal()
+                .then(Mono.fromCallable(() -> poisonWriter.write(azureMessage, reason)))
+                .flatMap(this::sendToPoison)
+                .then(Mono.defer(() -> delete(azureMessage.getShard().getQueueName(),
+                        azureMessage.getMessageId(), azureMessage.getPopReceipt())))
+                .doOnSuccess(v -> {
+                    poisoned.increment();
+                    log.warn("Message {} movido a poison: {}", message.getMessageId(), reason);
+                })
+                .onErrorResume(e -> {
+                    log.error("Error moviendo msm {} a poison: {}", message.getMessageId(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public Mono<Void> renewLease(QueueMessage message) {
+        return leaseRenewer.renew((AzureQueueMessage) message);
+    }
+
+    @Override
+    public void release(QueueMessage message) {
+        leaseRenewer.release((AzureQueueMessage) message);
+    }
+
+    private Mono<Void> extendVisibility(AzureQueueMessage message) {
+        return updateVisibility(message.getShard().getQueueName(), message.getMessageId(),
+                        message.getPopReceipt(), leaseRenewer.getVisibilityTimeout())
+                .doOnNext(result -> message.renewed(result.getPopReceipt(),
+                        visibleUntil(result.getTimeNextVisible())))
+                .then();
+    }
+
+    private void track(ShardBatch batch) {
+        batch.getMessages().forEach(msg -> leaseRenewer.track(msg, this::extendVisibility));
+    }
+
+    private Mono<Void> abandon(AzureQueueMessage message) {
+        leaseRenewer.release(message);
+        return makeVisible(message);
+    }
+
+    private Mono<Void> makeVisible(AzureQueueMessage message) {
+        return updateVisibility(message.getShard().getQueueName(), message.getMessageId(),
+                message.getPopReceipt(), Duration.ZERO)
+                .then();
+    }
+
+    private Mono<AzureQueueMessage> toQueueMessage(QueueShard shard, QueueMessageItem item) {
+        if (item.getDequeueCount() > maxDequeueCount) {
+            return deadLetter(toQueueMessage(shard, item, null), String.format(
+                    "Dequeue count %d supera el maximo %d", item.getDequeueCount(), maxDequeueCount))
+                    .then(Mono.empty());
+        }
+
+        Order order;
+        try {
+            order = payloadParser.parse(item.getBody().toString());
+        } catch (Exception e) {
+            parseFailures.increment();
+            log.error("Error  order: {}", e.getMessage());
+            return deadLetter(toQueueMessage(shard, item, null), "Payload invalido: " + e.getMessage())
+                    .then(Mono.empty());
+        }
+        return Mono.just(toQueueMessage(shard, item, order));
+    }
+
+    private AzureQueueMessage toQueueMessage(QueueShard shard, QueueMessageItem item, Order order) {
+        return new AzureQueueMessage(shard, item.getMessageId(), item.getPopReceipt(),
+                visibleUntil(item.getTimeNextVisible()), item.getBody().toString(), item.getDequeueCount(), order);
+    }
+
+    private Instant visibleUntil(OffsetDateTime timeNextVisible) {
+        return timeNextVisible != null
+                ? timeNextVisible.toInstant()
+                : Instant.now().plus(leaseRenewer.getVisibilityTimeout());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.azure.storage.queue.QueueAsyncClient;
+import com.azure.storage.queue.QueueClientBuilder;
+import com.azure.storage.queue.models.QueueMessageItem;
+import com.azure.storage.queue.models.UpdateMessageResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@Profile("!loadtest")
+@ConditionalOnProperty(value = "azure.storage.queue.client", havingValue = "async")
+public class AsyncAzureQueueAdapter extends AbstractAzureQueueAdapter {
+
+    private static final Duration CREATE_RETRY_MIN = Duration.ofSeconds(1);
+    private static final Duration CREATE_RETRY_MAX = Duration.ofSeconds(30);
+
+    private final Map<String, QueueAsyncClient> queueClients = new LinkedHashMap<>();
+    private final Map<String, Mono<Void>> queuesReady = new LinkedHashMap<>();
+    private final QueueAsyncClient poisonClient;
+    private final Mono<Void> poisonReady;
+
+    public AsyncAzureQueueAdapter(
+            @Value("${azure.storage.queue.connection-string}") String connectionString,
+            @Value("${azure.storage.queue.queue-names:${azure.storage.queue.queue-name}}") List<String> queueNames,
+            @Value("${azure.storage.queue.poison.queue-name:orders-poison}") String poisonQueueName,
+            @Value("${azure.storage.queue.poison.max-dequeue-count:5}") long maxDequeueCount,
+            OrderPayloadParser payloadParser,
+            QueueLeaseRenewer leaseRenewer,
+            QueuePrefetcher prefetcher,
+            PoisonMessageWriter poisonWriter,
+            MeterRegistry meterRegistry) {
+
+        super(queueNames, payloadParser, leaseRenewer, prefetcher, poisonWriter, maxDequeueCount, meterRegistry);
+
+        for (String queueName : queueNames()) {
+            QueueAsyncClient queueClient = new QueueClientBuilder()
+                    .connectionString(connectionString)
+                    .queueName(queueName)
+                    .buildAsyncClient();
+            queueClients.put(queueName, queueClient);
+            queuesReady.put(queueName, createQueueIfNotExists(queueClient, queueName));
+        }
+
+        this.poisonClient = new QueueClientBuilder()
+                .connectionString(connectionString)
+                .queueName(poisonQueueName)
+                .buildAsyncClient();
+
+        this.poisonReady = createQueueIfNotExists(poisonClient, poisonQueueName);
+    }
+
+    @Override
+    protected Flux<QueueMessageItem> receiveItems(String queueName, int maxMessages,
+                                                  Duration visibilityTimeout) {
+        return queuesReady.get(queueName)
+                .thenMany(Flux.defer(() -> queueClients.get(queueName).receiveMessages(maxMessages, visibilityTimeout)));
+    }
+
+    @Override
+    protected Mono<UpdateMessageResult> updateVisibility(String queueName, String messageId,
+                                                         String popReceipt, Duration visibilityTimeout) {
+        return queueClients.get(queueName).updateMessage(messageId, popReceipt, null, visibilityTimeout);
+    }
+
+    @Override
+    protected Mono<Void> sendToPoison(String messageText) {
+        return poisonReady.then(Mono.defer(() -> poisonClient.sendMessage(messageText))).then();
+    }
+
+    @Override
+    protected Mono<Void> delete(String queueName, String messageId, String popReceipt) {
+        return queueClients.get(queueName).deleteMessage(messageId, popReceipt);
+    }
+
+    // Las lecturas esperan a que la cola exista; si falla la creacion se reintenta en segundo plano
+    private Mono<Void> createQueueIfNotExists(QueueAsyncClient client, String queueName) {
+        Mono<Void> ready = client.createIfNotExists()
+                .doOnNext(created -> log.info("Queue '{}' {}", queueName, created ? "created" : "already exists"))
+                .doOnError(error -> log.warn("No se puede crear queue '{}': {}", queueName, error.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, CREATE_RETRY_MIN).maxBackoff(CREATE_RETRY_MAX))
+                .then()
+                .cache();
+        ready.subscribe();
+        return ready;
+    }
+}
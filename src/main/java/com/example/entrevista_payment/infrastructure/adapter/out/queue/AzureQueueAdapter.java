@@ -3,109 +3,103 @@ package com.example.entrevista_payment.infrastructure.adapter.out.queue;
 import com.azure.storage.queue.QueueClient;
 import com.azure.storage.queue.QueueClientBuilder;
 import com.azure.storage.queue.models.QueueMessageItem;
-import com.example.entrevista_payment.domain.model.Order;
-import com.example.entrevista_payment.domain.port.out.OrderQueuePort;
-import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.OrderDto;
-import com.example.entrevista_payment.infrastructure.mapper.OrderMapper;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.azure.storage.queue.models.UpdateMessageResult;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
-public class AzureQueueAdapter implements OrderQueuePort {
+@Profile("!loadtest")
+@ConditionalOnProperty(value = "azure.storage.queue.client", havingValue = "sync", matchIfMissing = true)
+public class AzureQueueAdapter extends AbstractAzureQueueAdapter {
 
-    private final QueueClient queueClient;
-    private final ObjectMapper objectMapper;
-    private final OrderMapper orderMapper;
+    private final Map<String, QueueClient> queueClients = new LinkedHashMap<>();
+    private final QueueClient poisonClient;
+    private final Scheduler blockingScheduler;
 
     public AzureQueueAdapter(
             @Value("${azure.storage.queue.connection-string}") String connectionString,
-            @Value("${azure.storage.queue.queue-name}") String queueName,
-            ObjectMapper objectMapper,
-            OrderMapper orderMapper) {
+            @Value("${azure.storage.queue.queue-names:${azure.storage.queue.queue-name}}") List<String> queueNames,
+            @Value("${azure.storage.queue.poison.queue-name:orders-poison}") String poisonQueueName,
+            @Value("${azure.storage.queue.poison.max-dequeue-count:5}") long maxDequeueCount,
+            OrderPayloadParser payloadParser,
+            QueueLeaseRenewer leaseRenewer,
+            QueuePrefetcher prefetcher,
+            PoisonMessageWriter poisonWriter,
+            Scheduler blockingScheduler,
+            MeterRegistry meterRegistry) {
+
+        super(queueNames, payloadParser, leaseRenewer, prefetcher, poisonWriter, maxDequeueCount, meterRegistry);
+        this.blockingScheduler = blockingScheduler;
 
-        this.objectMapper = objectMapper;
-        this.orderMapper = orderMapper;
+        for (String queueName : queueNames()) {
+            QueueClient queueClient = new QueueClientBuilder()
+                    .connectionString(connectionString)
+                    .queueName(queueName)
+                    .buildClient();
+            createQueueIfNotExists(queueClient, queueName);
+            queueClients.put(queueName, queueClient);
+        }
 
-        this.queueClient = new QueueClientBuilder()
+        this.poisonClient = new QueueClientBuilder()
                 .connectionString(connectionString)
-                .queueName(queueName)
+                .queueName(poisonQueueName)
                 .buildClient();
 
-        try {
-            queueClient.create();
-            log.info("Queue '{}' created", queueName);
-        } catch (Exception e) {
-            log.info("Queue '{}' already exists", queueName);
-        }
+        createQueueIfNotExists(poisonClient, poisonQueueName);
     }
 
     @Override
-    public Flux<QueueMessage> receiveMessages() {
+    protected Flux<QueueMessageItem> receiveItems(String queueName, int maxMessages,
+                                                  Duration visibilityTimeout) {
         return Mono.fromCallable(() -> {
-                    var messages = queueClient.receiveMessages(10);
+                    var messages = queueClients.get(queueName).receiveMessages(maxMessages, visibilityTimeout, null, null);
                     return messages.stream().toList();
                 })
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMapMany(Flux::fromIterable)
-                .map(this::toQueueMessage)
-                .filter(msg -> msg.getOrder() != null)
-                .doOnNext(msg -> log.debug("Message recibido: {}", msg.getMessageId()))
-                .onErrorResume(e -> {
-                    log.error("Error recibiendo mensaje de queue: {}", e.getMessage());
-                    return Flux.empty();
-                });
+                .subscribeOn(blockingScheduler)
+                .flatMapMany(Flux::fromIterable);
     }
 
     @Override
-    public Mono<Void> deleteMessage(QueueMessage message) {
-        return Mono.fromRunnable(() -> {
-                    AzureQueueMessage azureMsg = (AzureQueueMessage) message;
-                    queueClient.deleteMessage(azureMsg.getMessageId(), azureMsg.getPopReceipt());
-                    log.debug("Message {} eliminar msm cola", message.getMessageId());
-                })
-                .subscribeOn(Schedulers.boundedElastic())
-                .then()
-                .onErrorResume(e -> {
-                    log.error("Error eliminando msm {}: {}", message.getMessageId(), e.getMessage());
-                    return Mono.empty();
-                });
+    protected Mono<UpdateMessageResult> updateVisibility(String queueName, String messageId,
+                                                         String popReceipt, Duration visibilityTimeout) {
+        return Mono.fromCallable(() -> queueClients.get(queueName)
+                        .updateMessage(messageId, popReceipt, null, visibilityTimeout))
+                .subscribeOn(blockingScheduler);
+    }
+
+    @Override
+    protected Mono<Void> sendToPoison(String messageText) {
+        return Mono.fromRunnable(() -> poisonClient.sendMessage(messageText))
+                .subscribeOn(blockingScheduler)
+                .then();
     }
 
-    private QueueMessage toQueueMessage(QueueMessageItem item) {
-        Order order = parseOrder(item.getMessageText());
-        return new AzureQueueMessage(item.getMessageId(), item.getPopReceipt(), order);
+    @Override
+    protected Mono<Void> delete(String queueName, String messageId, String popReceipt) {
+        return Mono.fromRunnable(() -> queueClients.get(queueName).deleteMessage(messageId, popReceipt))
+                .subscribeOn(blockingScheduler)
+                .then();
     }
 
-    private Order parseOrder(String messageText) {
+    private void createQueueIfNotExists(QueueClient client, String queueName) {
         try {
-            OrderDto dto = objectMapper.readValue(messageText, OrderDto.class);
-            return orderMapper.toDomain(dto);
+            client.create();
+            log.info("Queue '{}' created", queueName);
         } catch (Exception e) {
-            log.error("Error  order: {}", e.getMessage());
-            return null;
+            log.info("Queue '{}' already exists", queueName);
         }
     }
-
-    @RequiredArgsConstructor
-    private static class AzureQueueMessage implements QueueMessage {
-        private final String messageId;
-        private final String popReceipt;
-        private final Order order;
-
-        @Override
-        public String getMessageId() { return messageId; }
-
-        @Override
-        public String getPopReceipt() { return popReceipt; }
-
-        @Override
-        public Order getOrder() { return order; }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.port.out.OrderQueuePort;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+class AzureQueueMessage implements OrderQueuePort.QueueMessage {
+    private final QueueShard shard;
+    private final String messageId;
+    private final Order order;
+    private final String messageText;
+    private final long dequeueCount;
+    private String popReceipt;
+    private Instant visibleUntil;
+    private Mono<Void> pendingRenewal = Mono.empty();
+
+    AzureQueueMessage(QueueShard shard, String messageId, String popReceipt, Instant visibleUntil,
+                      String messageText, long dequeueCount, Order order) {
+        this.shard = shard;
+        this.messageId = messageId;
+        this.popReceipt = popReceipt;
+        this.visibleUntil = visibleUntil;
+        this.messageText = messageText;
+        this.dequeueCount = dequeueCount;
+        this.order = order;
+    }
+
+    @Override
+    public String getMessageId() { return messageId; }
+
+    @Override
+    public synchronized String getPopReceipt() { return popReceipt; }
+
+    @Override
+    public Order getOrder() { return order; }
+
+    QueueShard getShard() { return shard; }
+
+    String getMessageText() { return messageText; }
+
+    long getDequeueCount() { return dequeueCount; }
+
+    synchronized Instant getVisibleUntil() { return visibleUntil; }
+
+    synchronized Mono<Void> getPendingRenewal() { return pendingRenewal; }
+
+    synchronized void setPendingRenewal(Mono<Void> renewal) {
+        this.pendingRenewal = renewal;
+    }
+
+    synchronized void renewed(String popReceipt, Instant visibleUntil) {
+        this.popReceipt = popReceipt;
+        this.visibleUntil = visibleUntil;
+    }
+}
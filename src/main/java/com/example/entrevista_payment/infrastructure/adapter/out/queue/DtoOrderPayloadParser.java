@@ -0,0 +1,28 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.OrderDto;
+import com.example.entrevista_payment.infrastructure.mapper.OrderMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(value = "azure.storage.queue.parser", havingValue = "dto")
+public class DtoOrderPayloadParser implements OrderPayloadParser {
+
+    private final ObjectReader reader;
+    private final OrderMapper orderMapper;
+
+    public DtoOrderPayloadParser(ObjectMapper objectMapper, OrderMapper orderMapper) {
+        this.reader = objectMapper.readerFor(OrderDto.class);
+        this.orderMapper = orderMapper;
+    }
+
+    @Override
+    public Order parse(String payload) throws Exception {
+        OrderDto dto = reader.readValue(payload);
+        return orderMapper.toDomain(dto);
+    }
+}
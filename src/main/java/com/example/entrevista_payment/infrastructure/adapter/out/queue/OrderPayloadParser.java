@@ -0,0 +1,7 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.example.entrevista_payment.domain.model.Order;
+
+public interface OrderPayloadParser {
+    Order parse(String payload) throws Exception;
+}
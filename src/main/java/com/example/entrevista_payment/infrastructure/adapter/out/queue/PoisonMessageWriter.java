@@ -0,0 +1,92 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.PoisonMessageDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Arma el mensaje de la cola poison sin pasar el limite de 64 KiB de Azure Queue: si el
+ * payload original no entra en maxBytes se recorta y se marca como truncado.
+ */
+@Slf4j
+@Component
+class PoisonMessageWriter {
+
+    private final ObjectMapper objectMapper;
+    private final int maxBytes;
+
+    PoisonMessageWriter(ObjectMapper objectMapper,
+                        @Value("${azure.storage.queue.poison.max-bytes:49152}") int maxBytes) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+    }
+
+    String write(AzureQueueMessage message, String reason) throws JsonProcessingException {
+        String text = message.getMessageText() != null ? message.getMessageText() : "";
+        int textBytes = utf8Length(text);
+        Instant failedAt = Instant.now();
+
+        String json = serialize(message, reason, failedAt, text, textBytes, false);
+        if (utf8Length(json) <= maxBytes) {
+            return json;
+        }
+        int envelope = utf8Length(serialize(message, reason, failedAt, "", textBytes, true));
+        log.warn("Payload de {} recortado de {} bytes para la cola poison", message.getMessageId(), textBytes);
+        return serialize(message, reason, failedAt, truncate(text, maxBytes - envelope), textBytes, true);
+    }
+
+    private String serialize(AzureQueueMessage message, String reason, Instant failedAt, String text,
+                             int textBytes, boolean truncated) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(PoisonMessageDto.builder()
+                .messageId(message.getMessageId())
+                .reason(reason)
+                .dequeueCount(message.getDequeueCount())
+                .failedAt(failedAt)
+                .messageText(text)
+                .messageTextBytes(textBytes)
+                .messageTextTruncated(truncated)
+                .build());
+    }
+
+    // Recorta por code point contando lo que ocupa cada uno ya escapado en JSON
+    private static String truncate(String text, int maxBytes) {
+        int bytes = 0;
+        int end = 0;
+        while (end < text.length()) {
+            int codePoint = text.codePointAt(end);
+            int length = escapedLength(codePoint);
+            if (bytes + length > maxBytes) {
+                break;
+            }
+            bytes += length;
+            end += Character.charCount(codePoint);
+        }
+        return text.substring(0, end);
+    }
+
+    private static int utf8Length(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static int escapedLength(int codePoint) {
+        if (codePoint == '"' || codePoint == '\\') {
+            return 2;
+        }
+        if (codePoint < 0x20) {
+            return 6;
+        }
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Un solo temporizador para todos los mensajes en vuelo: en cada tick extiende la
+ * visibilidad de los que estan por expirar, sin un timer por mensaje.
+ */
+@Slf4j
+@Component
+class QueueLeaseRenewer {
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    @Getter
+    private final Duration visibilityTimeout;
+    private final Duration renewAhead;
+    private final Duration maxLease;
+    private final Counter renewals;
+    private final Counter renewalFailures;
+    private final Scheduler scheduler;
+    private final Disposable ticker;
+
+    @Autowired
+    QueueLeaseRenewer(
+            @Value("${azure.storage.queue.lease.visibility-timeout-ms:30000}") long visibilityTimeoutMs,
+            @Value("${azure.storage.queue.lease.renew-ahead-ms:10000}") long renewAheadMs,
+            @Value("${azure.storage.queue.lease.tick-ms:1000}") long tickMs,
+            @Value("${azure.storage.queue.lease.max-ms:300000}") long maxLeaseMs,
+            MeterRegistry meterRegistry) {
+        this(visibilityTimeoutMs, renewAheadMs, tickMs, maxLeaseMs, Schedulers.parallel(), meterRegistry);
+    }
+
+    // El scheduler marca los ticks y da la hora, asi los tests pueden usar tiempo virtual
+    QueueLeaseRenewer(long visibilityTimeoutMs, long renewAheadMs, long tickMs, long maxLeaseMs,
+                      Scheduler scheduler, MeterRegistry meterRegistry) {
+        this.scheduler = scheduler;
+        this.visibilityTimeout = Duration.ofMillis(visibilityTimeoutMs);
+        this.renewAhead = Duration.ofMillis(renewAheadMs);
+        this.maxLease = Duration.ofMillis(maxLeaseMs);
+        this.renewals = Counter.builder("payment.queue.lease.renewals")
+                .description("Extensiones de visibilidad de mensajes en vuelo")
+                .register(meterRegistry);
+        this.renewalFailures = Counter.builder("payment.queue.lease.renewal.failures")
+                .description("Extensiones de visibilidad fallidas")
+                .register(meterRegistry);
+        Gauge.builder("payment.queue.lease.inflight", leases, Map::size)
+                .description("Mensajes en vuelo con lease activo")
+                .register(meterRegistry);
+        this.ticker = Flux.interval(Duration.ofMillis(tickMs), scheduler)
+                .onBackpressureDrop()
+                .concatMap(tick -> renewExpiring().onErrorResume(e -> Mono.empty()))
+                .subscribe();
+    }
+
+    void track(AzureQueueMessage message, Function<AzureQueueMessage, Mono<Void>> renew) {
+        leases.put(message.getMessageId(), new Lease(message, renew, now()));
+    }
+
+    void release(AzureQueueMessage message) {
+        synchronized (message) {
+            leases.remove(message.getMessageId());
+        }
+    }
+
+    Mono<Void> renew(AzureQueueMessage message) {
+        Lease lease = leases.get(message.getMessageId());
+        return lease == null ? Mono.empty() : renew(lease);
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.dispose();
+    }
+
+    private Mono<Void> renewExpiring() {
+        Instant now = now();
+        Instant threshold = now.plus(renewAhead);
+
+        return Flux.fromIterable(leases.values())
+                .filter(lease -> !lease.renewing)
+                .filter(lease -> !lease.message.getVisibleUntil().isAfter(threshold))
+                .filter(lease -> {
+                    if (lease.startedAt.plus(maxLease).isBefore(now)) {
+                        log.warn("Mensaje {} supero el lease maximo, se deja volver a la cola",
+                                lease.message.getMessageId());
+                        release(lease.message);
+                        return false;
+                    }
+                    return true;
+                })
+                .flatMap(this::renew)
+                .then();
+    }
+
+    // El inicio del lease y los ticks usan el mismo reloj, el del scheduler
+    private Instant now() {
+        return Instant.ofEpochMilli(scheduler.now(TimeUnit.MILLISECONDS));
+    }
+
+    private Mono<Void> renew(Lease lease) {
+        AzureQueueMessage message = lease.message;
+        synchronized (message) {
+            if (leases.get(message.getMessageId()) != lease) {
+                return Mono.empty();
+            }
+            if (lease.renewing) {
+                return message.getPendingRenewal();
+            }
+            lease.renewing = true;
+            Mono<Void> renewal = lease.renew.apply(message)
+                    .doOnSuccess(v -> renewals.increment())
+                    .doOnError(e -> {
+                        renewalFailures.increment();
+                        log.warn("No se pudo extender visibilidad de {}: {}",
+                                message.getMessageId(), e.getMessage());
+                    })
+                    .onErrorResume(e -> Mono.empty())
+                    .doFinally(signal -> lease.renewing = false)
+                    .cache();
+            message.setPendingRenewal(renewal);
+            return renewal;
+        }
+    }
+
+    private static final class Lease {
+        private final AzureQueueMessage message;
+        private final Function<AzureQueueMessage, Mono<Void>> renew;
+        private final Instant startedAt;
+        private volatile boolean renewing;
+
+        private Lease(AzureQueueMessage message, Function<AzureQueueMessage, Mono<Void>> renew, Instant startedAt) {
+            this.message = message;
+            this.renew = renew;
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.CosmosConcurrencyLimiter;
+import com.example.entrevista_payment.infrastructure.config.Backoff;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Mantiene varias lecturas de la cola en vuelo y deja los mensajes en un buffer acotado que
+ * el procesador vacia a demanda. Cada lectura espera capacidad de escritura en Cosmos y, si la
+ * cola viene vacia, hace backoff exponencial. El adaptador renueva la visibilidad de los mensajes
+ * desde que se leen; solo los que igual quedan por vencer se descartan y vuelven a la cola.
+ */
+@Slf4j
+@Component
+class QueuePrefetcher {
+
+    static final int MAX_RECEIVE = 32;
+
+    @Getter
+    private final boolean enabled;
+    private final int receiversPerQueue;
+    private final int bufferSize;
+    private final Duration minRemaining;
+    private final Duration maxWait;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private final CosmosConcurrencyLimiter concurrencyLimiter;
+    private final Counter expired;
+
+    private final Deque<AzureQueueMessage> buffer = new ArrayDeque<>();
+    private final Deque<Waiter> spaceWaiters = new ArrayDeque<>();
+    private final List<Waiter> messageWaiters = new ArrayList<>();
+    private int reserved;
+    private Function<AzureQueueMessage, Mono<Void>> abandon;
+    private Disposable receivers;
+
+    QueuePrefetcher(
+            @Value("${azure.storage.queue.prefetch.enabled:true}") boolean enabled,
+            @Value("${azure.storage.queue.prefetch.receivers-per-queue:2}") int receiversPerQueue,
+            @Value("${azure.storage.queue.prefetch.buffer-size:256}") int bufferSize,
+            @Value("${azure.storage.queue.prefetch.min-remaining-ms:5000}") long minRemainingMs,
+            @Value("${azure.storage.queue.prefetch.max-wait-ms:1000}") long maxWaitMs,
+            @Value("${azure.storage.queue.prefetch.min-backoff-ms:${payment.processor.min-backoff-ms:100}}") long minBackoffMs,
+            @Value("${azure.storage.queue.prefetch.max-backoff-ms:${payment.processor.max-backoff-ms:15000}}") long maxBackoffMs,
+            CosmosConcurrencyLimiter concurrencyLimiter,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.receiversPerQueue = Math.max(1, receiversPerQueue);
+        this.bufferSize = Math.max(MAX_RECEIVE, bufferSize);
+        this.minRemaining = Duration.ofMillis(minRemainingMs);
+        this.maxWait = Duration.ofMillis(maxWaitMs);
+        this.minBackoff = Duration.ofMillis(minBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.expired = Counter.builder("payment.queue.prefetch.expired")
+                .description("Mensajes del buffer descartados porque no se pudo mantener su visibilidad")
+                .register(meterRegistry);
+        Gauge.builder("payment.queue.prefetch.buffered", this, QueuePrefetcher::getBuffered)
+                .description("Mensajes leidos por adelantado esperando al procesador")
+                .register(meterRegistry);
+    }
+
+    synchronized void start(List<QueueShard> shards, Function<QueueShard, Mono<ShardBatch>> receive,
+                            Function<AzureQueueMessage, Mono<Void>> abandon) {
+        if (receivers != null) {
+            return;
+        }
+        this.abandon = abandon;
+        List<QueueShard> loops = shards.stream()
+                .flatMap(shard -> Collections.nCopies(receiversPerQueue, shard).stream())
+                .toList();
+        log.info("Prefetch de cola con {} lecturas en vuelo y buffer de {} mensajes", loops.size(), bufferSize);
+        receivers = Flux.fromIterable(loops)
+                .flatMap(shard -> receiveLoop(shard, receive), loops.size())
+                .subscribe();
+    }
+
+    /**
+     * Entrega hasta maxMessages mensajes del buffer; si esta vacio espera como mucho maxWait
+     * a que llegue la siguiente lectura.
+     */
+    Flux<AzureQueueMessage> drain(int maxMessages) {
+        return Flux.defer(() -> {
+            List<AzureQueueMessage> taken = take(maxMessages);
+            if (!taken.isEmpty()) {
+                return Flux.fromIterable(taken);
+            }
+            return awaitMessages()
+                    .timeout(maxWait, Mono.empty())
+                    .thenMany(Flux.defer(() -> Flux.fromIterable(take(maxMessages))));
+        });
+    }
+
+    synchronized int getBuffered() {
+        return buffer.size();
+    }
+
+    @PreDestroy
+    void stop() {
+        List<AzureQueueMessage> pending;
+        synchronized (this) {
+            if (receivers != null) {
+                receivers.dispose();
+            }
+            pending = new ArrayList<>(buffer);
+            buffer.clear();
+        }
+        if (!pending.isEmpty()) {
+            Flux.fromIterable(pending)
+                    .flatMap(this::returnToQueue)
+                    .then()
+                    .block(maxWait);
+        }
+    }
+
+    private Mono<Void> receiveLoop(QueueShard shard, Function<QueueShard, Mono<ShardBatch>> receive) {
+        int maxMessages = shard.getMaxMessages();
+        Backoff backoff = new Backoff(minBackoff, maxBackoff);
+        return Mono.defer(() -> concurrencyLimiter.awaitCapacity()
+                        .then(reserve(maxMessages))
+                        .then(Mono.defer(() -> receive.apply(shard)))
+                        .doOnNext(batch -> fill(batch.getMessages(), maxMessages))
+                        .flatMap(batch -> pauseAfter(batch, backoff)))
+                .repeat()
+                .then();
+    }
+
+    private Mono<ShardBatch> pauseAfter(ShardBatch batch, Backoff backoff) {
+        if (batch.getReceived() > 0) {
+            backoff.reset();
+            return Mono.just(batch);
+        }
+        Duration delay = backoff.next();
+        log.debug("Queue {} vacia, siguiente lectura en {} ms", batch.getShard().getQueueName(), delay.toMillis());
+        return Mono.delay(delay).thenReturn(batch);
+    }
+
+    private Mono<Boolean> reserve(int maxMessages) {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink, maxMessages);
+            synchronized (this) {
+                if (hasSpace(maxMessages)) {
+                    reserved += maxMessages;
+                    waiter.granted = true;
+                } else {
+                    spaceWaiters.add(waiter);
+                    sink.onCancel(() -> {
+                        synchronized (this) {
+                            spaceWaiters.remove(waiter);
+                        }
+                    });
+                }
+            }
+            if (waiter.granted) {
+                sink.success(Boolean.TRUE);
+            }
+        });
+    }
+
+    private Mono<Boolean> awaitMessages() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink, 0);
+            synchronized (this) {
+                if (buffer.isEmpty()) {
+                    messageWaiters.add(waiter);
+                    sink.onCancel(() -> {
+                        synchronized (this) {
+                            messageWaiters.remove(waiter);
+                        }
+                    });
+                } else {
+                    waiter.granted = true;
+                }
+            }
+            if (waiter.granted) {
+                sink.success(Boolean.TRUE);
+            }
+        });
+    }
+
+    private void fill(List<AzureQueueMessage> messages, int reservation) {
+        List<Waiter> ready;
+        synchronized (this) {
+            reserved -= reservation;
+            buffer.addAll(messages);
+            ready = new ArrayList<>(grantSpace());
+            if (!buffer.isEmpty()) {
+                ready.addAll(messageWaiters);
+                messageWaiters.clear();
+            }
+        }
+        ready.forEach(Waiter::grant);
+    }
+
+    private List<AzureQueueMessage> take(int maxMessages) {
+        Instant deadline = Instant.now().plus(minRemaining);
+        List<AzureQueueMessage> taken = new ArrayList<>();
+        List<AzureQueueMessage> stale = new ArrayList<>();
+        List<Waiter> ready;
+        synchronized (this) {
+            while (taken.size() < maxMessages && !buffer.isEmpty()) {
+                AzureQueueMessage message = buffer.poll();
+                if (message.getVisibleUntil().isAfter(deadline)) {
+                    taken.add(message);
+                } else {
+                    stale.add(message);
+                }
+            }
+            ready = grantSpace();
+        }
+        ready.forEach(Waiter::grant);
+
+        if (!stale.isEmpty()) {
+            expired.increment(stale.size());
+            log.warn("{} mensajes del buffer con visibilidad por vencer, se devuelven a la cola", stale.size());
+            Flux.fromIterable(stale).flatMap(this::returnToQueue).subscribe();
+        }
+        return taken;
+    }
+
+    private Mono<Void> returnToQueue(AzureQueueMessage message) {
+        return abandon.apply(message)
+                .onErrorResume(e -> {
+                    log.debug("No se pudo devolver {} a la cola: {}", message.getMessageId(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private List<Waiter> grantSpace() {
+        List<Waiter> ready = new ArrayList<>();
+        while (!spaceWaiters.isEmpty() && hasSpace(spaceWaiters.peek().size)) {
+            Waiter waiter = spaceWaiters.poll();
+            reserved += waiter.size;
+            waiter.granted = true;
+            ready.add(waiter);
+        }
+        return ready;
+    }
+
+    private boolean hasSpace(int maxMessages) {
+        return buffer.size() + reserved + maxMessages <= bufferSize;
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Boolean> sink;
+        private final int size;
+        private boolean granted;
+
+        private Waiter(MonoSink<Boolean> sink, int size) {
+            this.sink = sink;
+            this.size = size;
+        }
+
+        private void grant() {
+            sink.success(Boolean.TRUE);
+        }
+    }
+}
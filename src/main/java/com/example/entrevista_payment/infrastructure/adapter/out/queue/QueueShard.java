@@ -0,0 +1,84 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+class QueueShard {
+
+    private static final int MAX_RECEIVE = 32;
+
+    private final String queueName;
+    private final int weight;
+    private final int maxMessages;
+    private final Timer receiveTimer;
+    private final DistributionSummary batchSize;
+    private final Counter emptyPolls;
+    private final Counter received;
+    private final Timer deleteTimer;
+
+    private QueueShard(String queueName, int weight, int maxMessages, MeterRegistry meterRegistry) {
+        this.queueName = queueName;
+        this.weight = weight;
+        this.maxMessages = maxMessages;
+        this.receiveTimer = Timer.builder("payment.queue.receive")
+                .description("Latencia de receiveMessages contra Azure Queue")
+                .tag("queue", queueName)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("payment.queue.receive.batch.size")
+                .description("Mensajes devueltos por cada receiveMessages")
+                .tag("queue", queueName)
+                .register(meterRegistry);
+        this.emptyPolls = Counter.builder("payment.queue.receive.empty")
+                .description("Lecturas de la cola que no devolvieron mensajes")
+                .tag("queue", queueName)
+                .register(meterRegistry);
+        this.received = Counter.builder("payment.queue.received")
+                .description("Mensajes recibidos por cola")
+                .tag("queue", queueName)
+                .register(meterRegistry);
+        this.deleteTimer = Timer.builder("payment.queue.delete")
+                .description("Latencia de deleteMessage contra Azure Queue")
+                .tag("queue", queueName)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cada entrada es "nombre" o "nombre:peso". La cola de mayor peso lee baseMessages por
+     * lectura y el resto en proporcion a su peso.
+     */
+    static List<QueueShard> fromSpecs(List<String> specs, int baseMessages, MeterRegistry meterRegistry) {
+        List<String> names = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (String spec : specs) {
+            String[] parts = spec.trim().split(":");
+            if (parts[0].isBlank()) {
+                continue;
+            }
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight < 1) {
+                throw new IllegalArgumentException("Peso de cola invalido: " + spec);
+            }
+            names.add(parts[0].trim());
+            weights.add(weight);
+        }
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos una cola");
+        }
+
+        int maxWeight = weights.stream().mapToInt(Integer::intValue).max().orElse(1);
+        List<QueueShard> shards = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            int maxMessages = Math.max(1, Math.min(MAX_RECEIVE,
+                    Math.round((float) baseMessages * weights.get(i) / maxWeight)));
+            shards.add(new QueueShard(names.get(i), weights.get(i), maxMessages, meterRegistry));
+        }
+        return List.copyOf(shards);
+    }
+}
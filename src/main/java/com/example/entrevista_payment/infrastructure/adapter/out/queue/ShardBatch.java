@@ -0,0 +1,26 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+class ShardBatch {
+    private final QueueShard shard;
+    private final List<AzureQueueMessage> messages;
+    private final int received;
+
+    ShardBatch(QueueShard shard, List<AzureQueueMessage> messages, int received) {
+        this.shard = shard;
+        this.messages = messages;
+        this.received = received;
+    }
+
+    static ShardBatch empty(QueueShard shard) {
+        return new ShardBatch(shard, List.of(), 0);
+    }
+
+    boolean isFull() {
+        return received >= shard.getMaxMessages();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.example.entrevista_payment.domain.exception.InvalidOrderException;
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.model.OrderItem;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import com.example.entrevista_payment.domain.model.valueobjects.ProductId;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(value = "azure.storage.queue.parser", havingValue = "streaming", matchIfMissing = true)
+public class StreamingOrderPayloadParser implements OrderPayloadParser {
+
+    private final ObjectReader reader;
+
+    public StreamingOrderPayloadParser(ObjectMapper objectMapper) {
+        this.reader = objectMapper.reader();
+    }
+
+    @Override
+    public Order parse(String payload) throws IOException {
+        try (JsonParser parser = reader.createParser(payload)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT, "order");
+
+            OrderId orderId = null;
+            CustomerId customerId = null;
+            List<OrderItem> items = null;
+            Money totalAmount = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "orderId" -> orderId = new OrderId(readText(parser, value, field));
+                    case "customerId" -> customerId = new CustomerId(readText(parser, value, field));
+                    case "items" -> items = readItems(parser, value);
+                    case "totalAmount" -> totalAmount = new Money(readDecimal(parser, value, field));
+                    default -> parser.skipChildren();
+                }
+            }
+
+            return new Order(orderId, customerId, items, totalAmount);
+        }
+    }
+
+    private List<OrderItem> readItems(JsonParser parser, JsonToken token) throws IOException {
+        expect(token, JsonToken.START_ARRAY, "items");
+
+        List<OrderItem> items = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            items.add(readItem(parser));
+        }
+        return items;
+    }
+
+    private OrderItem readItem(JsonParser parser) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_OBJECT, "item");
+
+        ProductId productId = null;
+        Integer quantity = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "productId" -> productId = new ProductId(readText(parser, value, field));
+                case "quantity" -> quantity = readInt(parser, value, field);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new OrderItem(productId, quantity);
+    }
+
+    private String readText(JsonParser parser, JsonToken token, String field) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(token, JsonToken.VALUE_STRING, field);
+        return parser.getText();
+    }
+
+    private Integer readInt(JsonParser parser, JsonToken token, String field) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(token, JsonToken.VALUE_NUMBER_INT, field);
+        return parser.getIntValue();
+    }
+
+    private BigDecimal readDecimal(JsonParser parser, JsonToken token, String field)
+            throws IOException {
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT) {
+            throw new InvalidOrderException("Campo " + field + " debe ser numerico");
+        }
+        return parser.getDecimalValue();
+    }
+
+    private void expect(JsonToken actual, JsonToken expected, String field) {
+        if (actual != expected) {
+            throw new InvalidOrderException("Campo " + field + " invalido: " + actual);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.entrevista_payment.infrastructure.config;
+
+import java.time.Duration;
+
+/**
+ * Espera exponencial entre min y max para lecturas que vuelven vacias. No es thread-safe:
+ * cada bucle de lectura usa su propia instancia.
+ */
+public final class Backoff {
+
+    private final Duration min;
+    private final Duration max;
+    private Duration current;
+
+    public Backoff(Duration min, Duration max) {
+        this.min = min;
+        this.max = max;
+        this.current = min;
+    }
+
+    public void reset() {
+        current = min;
+    }
+
+    public Duration next() {
+        Duration delay = current;
+        Duration doubled = current.multipliedBy(2);
+        current = doubled.compareTo(max) > 0 ? max : doubled;
+        return delay;
+    }
+}
@@ -5,8 +5,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
 
 @Configuration
 public class BeanConfiguration {
@@ -24,4 +26,9 @@ public class BeanConfiguration {
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         return mapper;
     }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(@Value("${payment.scheduler.blocking:bounded-elastic}") String type) {
+        return BlockingSchedulers.create(type);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.example.entrevista_payment.infrastructure.config;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class BlockingSchedulers {
+
+    public static final String BOUNDED_ELASTIC = "bounded-elastic";
+    public static final String VIRTUAL = "virtual";
+
+    private BlockingSchedulers() {
+    }
+
+    public static Scheduler create(String type) {
+        if (BOUNDED_ELASTIC.equalsIgnoreCase(type)) {
+            return Schedulers.boundedElastic();
+        }
+        if (VIRTUAL.equalsIgnoreCase(type)) {
+            return Schedulers.fromExecutorService(newVirtualThreadExecutor(), "virtual");
+        }
+        throw new IllegalArgumentException("Scheduler no soportado: " + type);
+    }
+
+    // Se resuelve por reflexion para seguir compilando con Java 17; requiere ejecutar con Java 21+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads requieren Java 21 (runtime actual "
+                    + Runtime.version() + ")", e);
+        }
+    }
+}
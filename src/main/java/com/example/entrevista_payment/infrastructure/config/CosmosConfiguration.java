@@ -1,13 +1,22 @@
 package com.example.entrevista_payment.infrastructure.config;
 
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
 import com.azure.cosmos.CosmosClientBuilder;
 import com.azure.spring.data.cosmos.config.AbstractCosmosConfiguration;
 import com.azure.spring.data.cosmos.repository.config.EnableReactiveCosmosRepositories;
+import com.azure.spring.data.cosmos.repository.support.CosmosEntityInformation;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.CustomerTransactionEntity;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.TransactionAggregateEntity;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.TransactionEntity;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
 
 @Configuration
+@Profile("!loadtest")
 @EnableReactiveCosmosRepositories(
         basePackages = "com.example.entrevista_payment.infrastructure.adapter.out.persistence.cosmos"
 )
@@ -29,6 +38,25 @@ public class CosmosConfiguration extends AbstractCosmosConfiguration {
                 .key(key);
     }
 
+    @Bean
+    @Primary
+    public CosmosAsyncContainer transactionsContainer(CosmosAsyncClient cosmosAsyncClient) {
+        String containerName = new CosmosEntityInformation<>(TransactionEntity.class).getContainerName();
+        return cosmosAsyncClient.getDatabase(database).getContainer(containerName);
+    }
+
+    @Bean
+    public CosmosAsyncContainer customerTransactionsContainer(CosmosAsyncClient cosmosAsyncClient) {
+        String containerName = new CosmosEntityInformation<>(CustomerTransactionEntity.class).getContainerName();
+        return cosmosAsyncClient.getDatabase(database).getContainer(containerName);
+    }
+
+    @Bean
+    public CosmosAsyncContainer aggregatesContainer(CosmosAsyncClient cosmosAsyncClient) {
+        String containerName = new CosmosEntityInformation<>(TransactionAggregateEntity.class).getContainerName();
+        return cosmosAsyncClient.getDatabase(database).getContainer(containerName);
+    }
+
     @Override
     protected String getDatabaseName() {
         return database;
@@ -38,7 +38,7 @@ public class AuditLogMapper {
                 .id(transaction.getId().getValue())
                 .orderId(transaction.getOrderId().getValue())
                 .customerId(transaction.getCustomerId().getValue())
-                .amount(transaction.getAmount().getAmount().doubleValue())
+                .amount(transaction.getAmount().getAmount())
                 .status(transaction.getStatus().getValue())
                 .timestamp(transaction.getTimestamp())
                 .processedAt(transaction.getProcessedAt())
@@ -31,7 +31,7 @@ public class OrderMapper {
         OrderDto dto = new OrderDto();
         dto.setOrderId(order.getOrderId().getValue());
         dto.setCustomerId(order.getCustomerId().getValue());
-        dto.setTotalAmount(order.getTotalAmount().getAmount().doubleValue());
+        dto.setTotalAmount(order.getTotalAmount().getAmount());
 
         List<OrderDto.ItemDto> itemDtos = order.getItems().stream()
                 .map(this::toItemDto)
@@ -2,6 +2,7 @@ package com.example.entrevista_payment.infrastructure.mapper;
 
 import com.example.entrevista_payment.domain.model.*;
 import com.example.entrevista_payment.domain.model.valueobjects.*;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.CustomerTransactionEntity;
 import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.TransactionEntity;
 import org.springframework.stereotype.Component;
 
@@ -14,6 +15,7 @@ public class TransactionMapper {
                 .orderId(transaction.getOrderId().getValue())
                 .customerId(transaction.getCustomerId().getValue())
                 .amount(transaction.getAmount().getAmount().doubleValue())
+                .amountMinor(transaction.getAmount().getMinorUnits())
                 .status(transaction.getStatus().getValue())
                 .timestamp(transaction.getTimestamp())
                 .processedAt(transaction.getProcessedAt())
@@ -25,10 +27,41 @@ public class TransactionMapper {
                 .withId(new TransactionId(entity.getId()))
                 .withOrderId(new OrderId(entity.getOrderId()))
                 .withCustomerId(new CustomerId(entity.getCustomerId()))
-                .withAmount(new Money(entity.getAmount()))
+                .withAmount(toMoney(entity))
                 .withStatus(TransactionStatus.fromValue(entity.getStatus()))
                 .withTimestamp(entity.getTimestamp())
                 .withProcessedAt(entity.getProcessedAt())
                 .build();
     }
+
+    public CustomerTransactionEntity toCustomerEntity(Transaction transaction) {
+        return CustomerTransactionEntity.builder()
+                .id(transaction.getId().getValue())
+                .customerId(transaction.getCustomerId().getValue())
+                .type(CustomerTransactionEntity.TYPE)
+                .orderId(transaction.getOrderId().getValue())
+                .amountMinor(transaction.getAmount().getMinorUnits())
+                .status(transaction.getStatus().getValue())
+                .timestamp(transaction.getTimestamp())
+                .processedAt(transaction.getProcessedAt())
+                .build();
+    }
+
+    public Transaction toDomain(CustomerTransactionEntity entity) {
+        return new Transaction.Builder()
+                .withId(new TransactionId(entity.getId()))
+                .withOrderId(new OrderId(entity.getOrderId()))
+                .withCustomerId(new CustomerId(entity.getCustomerId()))
+                .withAmount(Money.ofMinor(entity.getAmountMinor()))
+                .withStatus(TransactionStatus.fromValue(entity.getStatus()))
+                .withTimestamp(entity.getTimestamp())
+                .withProcessedAt(entity.getProcessedAt())
+                .build();
+    }
+
+    private Money toMoney(TransactionEntity entity) {
+        return entity.getAmountMinor() != null
+                ? Money.ofMinor(entity.getAmountMinor())
+                : new Money(entity.getAmount());
+    }
 }
\ No newline at end of file
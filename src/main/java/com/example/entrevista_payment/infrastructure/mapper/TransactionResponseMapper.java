@@ -0,0 +1,21 @@
+package com.example.entrevista_payment.infrastructure.mapper;
+
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.infrastructure.adapter.in.web.dto.TransactionResponse;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TransactionResponseMapper {
+
+    public TransactionResponse toResponse(Transaction transaction) {
+        return TransactionResponse.builder()
+                .id(transaction.getId().getValue())
+                .orderId(transaction.getOrderId().getValue())
+                .customerId(transaction.getCustomerId().getValue())
+                .amount(transaction.getAmount().getAmount())
+                .status(transaction.getStatus().getValue())
+                .timestamp(transaction.getTimestamp())
+                .processedAt(transaction.getProcessedAt())
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.entrevista_payment.application.usecase;
+
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.model.OrderItem;
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.TransactionCount;
+import com.example.entrevista_payment.domain.model.TransactionPage;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import com.example.entrevista_payment.domain.model.valueobjects.ProductId;
+import com.example.entrevista_payment.domain.port.out.TransactionRepository;
+import com.example.entrevista_payment.domain.service.PaymentDomainService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcessPaymentUseCaseImplTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FailingOnceRepository repository = new FailingOnceRepository();
+    private final ProcessPaymentUseCaseImpl useCase = new ProcessPaymentUseCaseImpl(repository,
+            auditLog -> Mono.empty(), new PaymentDomainService(), meterRegistry);
+
+    @Test
+    void singleOrderTimerIncludesRetryBackoff() {
+        useCase.processPayment(order("o-1")).block(Duration.ofSeconds(5));
+
+        assertEquals(1, process().count());
+        assertTrue(process().totalTime(TimeUnit.MILLISECONDS) >= 500, "process: " + process());
+        assertEquals(2, attempt().count());
+        assertTrue(attempt().max(TimeUnit.MILLISECONDS) < 500, "attempt: " + attempt());
+    }
+
+    @Test
+    void bulkTimerRecordsEachItemFromBatchStart() {
+        List<?> results = useCase.processPayments(List.of(order("o-1"), order("o-2")))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(2, results.size());
+        assertEquals(2, process().count());
+        assertTrue(process().max(TimeUnit.MILLISECONDS) >= 1000, "process: " + process());
+        assertEquals(3, attempt().count());
+        assertTrue(attempt().max(TimeUnit.MILLISECONDS) < 500, "attempt: " + attempt());
+    }
+
+    private Timer process() {
+        return meterRegistry.get("payment.process").timer();
+    }
+
+    private Timer attempt() {
+        return meterRegistry.get("payment.process.attempt").timer();
+    }
+
+    private static Order order(String id) {
+        return new Order(new OrderId(id), new CustomerId("c-1"),
+                List.of(new OrderItem(new ProductId("p-1"), 1)), new Money(new BigDecimal("1.00")));
+    }
+
+    // La primera escritura de o-1 falla, las siguientes se guardan
+    private static final class FailingOnceRepository implements TransactionRepository {
+        private final Set<OrderId> attempted = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public Mono<Transaction> save(Transaction transaction) {
+            return failsNow(transaction)
+                    ? Mono.error(new IllegalStateException("cosmos no disponible"))
+                    : Mono.just(transaction);
+        }
+
+        @Override
+        public Flux<SaveResult> saveAll(Flux<Transaction> transactions) {
+            return transactions.map(transaction -> failsNow(transaction)
+                    ? SaveResult.failure(transaction, new IllegalStateException("cosmos no disponible"))
+                    : SaveResult.success(transaction));
+        }
+
+        private boolean failsNow(Transaction transaction) {
+            return transaction.getOrderId().getValue().equals("o-1") && attempted.add(transaction.getOrderId());
+        }
+
+        @Override
+        public Mono<Transaction> findByOrderId(OrderId orderId) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Flux<TransactionPage> findPages(Instant from, Instant to, int pageSize, String continuationToken) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Mono<Long> count() {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<TransactionCount> currentCount() {
+            return Mono.empty();
+        }
+    }
+}
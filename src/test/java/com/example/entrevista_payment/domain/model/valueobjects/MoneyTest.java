@@ -0,0 +1,26 @@
+package com.example.entrevista_payment.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void roundsToMinorUnitsAtTheEdge() {
+        assertEquals(1999, new Money(new BigDecimal("19.985")).getMinorUnits());
+        assertEquals(Money.ofMinor(1999), new Money(19.99));
+        assertEquals(new BigDecimal("19.99"), Money.ofMinor(1999).getAmount());
+    }
+
+    @Test
+    void arithmeticStaysInMinorUnits() {
+        assertEquals(Money.ofMinor(30), Money.ofMinor(10).add(Money.ofMinor(20)));
+        assertTrue(Money.ofMinor(0).isNegativeOrZero());
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).add(Money.ofMinor(1)));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.queue;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedLanesTest {
+
+    @Test
+    void keepsOrderPerKeyAndBoundsEachLane() {
+        KeyedLanes<String> lanes = new KeyedLanes<>(4, 3, item -> item.charAt(0));
+        Map<Character, AtomicInteger> pending = new ConcurrentHashMap<>();
+        AtomicInteger maxPending = new AtomicInteger();
+
+        Flux<String> input = Flux.range(0, 200)
+                .map(i -> (i % 5 == 0 ? "a" : String.valueOf((char) ('b' + i % 7))) + "-" + i)
+                .doOnNext(item -> maxPending.accumulateAndGet(
+                        pending.computeIfAbsent(item.charAt(0), key -> new AtomicInteger()).incrementAndGet(),
+                        Math::max));
+
+        List<String> processed = lanes.apply(input, lane -> lane.concatMap(item -> Mono.delay(Duration.ofMillis(1))
+                        .thenReturn(item)
+                        .doOnNext(done -> pending.get(done.charAt(0)).decrementAndGet())))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(200, processed.size());
+        assertTrue(maxPending.get() <= 3, "pendientes por clave: " + maxPending.get());
+        Map<Character, List<Integer>> byKey = processed.stream().collect(Collectors.groupingBy(
+                item -> item.charAt(0),
+                Collectors.mapping(item -> Integer.parseInt(item.substring(2)), Collectors.toList())));
+        byKey.values().forEach(sequence -> assertEquals(sequence.stream().sorted().toList(), sequence));
+    }
+}
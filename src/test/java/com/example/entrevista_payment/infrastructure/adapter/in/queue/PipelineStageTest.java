@@ -0,0 +1,81 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.queue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineStageTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PipelineStage stage = new PipelineStage("persist", 3, 8, registry);
+
+    @Test
+    void boundsConcurrencyAndPublishesMetrics() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger maxQueued = new AtomicInteger();
+
+        Long processed = stage.apply(Flux.range(0, 40), item -> Mono.fromRunnable(() -> {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            maxQueued.accumulateAndGet((int) gauge("payment.pipeline.stage.queued"), Math::max);
+                        })
+                        .then(Mono.delay(Duration.ofMillis(2)))
+                        .doOnTerminate(running::decrementAndGet))
+                .count()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(40, processed);
+        assertTrue(maxRunning.get() <= 3, "en proceso: " + maxRunning.get());
+        assertTrue(maxQueued.get() <= 8, "en buffer: " + maxQueued.get());
+        assertEquals(0.0, gauge("payment.pipeline.stage.queued"));
+        assertEquals(0.0, gauge("payment.pipeline.stage.inflight"));
+        assertEquals(40, registry.get("payment.pipeline.stage.latency").tag("stage", "persist").timer().count());
+    }
+
+    @Test
+    void batchesCountEachItemAndOneLatencySample() {
+        for (int i = 0; i < 5; i++) {
+            stage.enqueued();
+        }
+
+        Long results = stage.startBatch(5, () -> {
+                    assertEquals(0.0, gauge("payment.pipeline.stage.queued"));
+                    assertEquals(5.0, gauge("payment.pipeline.stage.inflight"));
+                    return Flux.range(0, 5);
+                })
+                .count()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(5, results);
+        assertEquals(0.0, gauge("payment.pipeline.stage.inflight"));
+        assertEquals(1, registry.get("payment.pipeline.stage.latency").tag("stage", "persist").timer().count());
+    }
+
+    @Test
+    void sourceBufferCountsWhatTheNextStageHasNotTaken() {
+        PipelineStage receive = new PipelineStage("receive", 1, 4, registry);
+
+        Long taken = receive.buffer(Flux.range(0, 10))
+                .doOnNext(item -> assertTrue(receiveQueued() <= 4))
+                .count()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(10, taken);
+        assertEquals(0.0, receiveQueued());
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).tag("stage", "persist").gauge().value();
+    }
+
+    private double receiveQueued() {
+        return registry.get("payment.pipeline.stage.queued").tag("stage", "receive").gauge().value();
+    }
+}
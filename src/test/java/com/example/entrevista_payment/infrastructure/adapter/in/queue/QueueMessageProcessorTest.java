@@ -0,0 +1,233 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.queue;
+
+import com.example.entrevista_payment.domain.exception.InvalidOrderException;
+import com.example.entrevista_payment.domain.exception.PaymentProcessingException;
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.model.OrderItem;
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import com.example.entrevista_payment.domain.model.valueobjects.ProductId;
+import com.example.entrevista_payment.domain.port.in.ProcessPaymentUseCase;
+import com.example.entrevista_payment.domain.port.out.OrderQueuePort;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.CosmosConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueueMessageProcessorTest {
+
+    private final FakePayments payments = new FakePayments();
+    private final FakeQueue queue = new FakeQueue(List.of(message("ok-1"), message("invalid-1"), message("fail-1"),
+            message("ok-2")), payments.audited);
+    private QueueMessageProcessor processor;
+
+    @AfterEach
+    void stop() {
+        processor.stopProcessing();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void routesEachOutcomeToItsAck(boolean bulk) {
+        processor = processor(bulk);
+        processor.startProcessing();
+
+        awaitAcks(4);
+
+        assertEquals(List.of("ok-1", "ok-2"), queue.deleted.stream().sorted().toList());
+        assertEquals(List.of("invalid-1"), List.copyOf(queue.deadLettered));
+        assertEquals(List.of("fail-1"), List.copyOf(queue.released));
+        assertEquals(List.of(), List.copyOf(queue.deletedBeforeAudit));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void keepsMessageWhenAuditFails(boolean bulk) {
+        payments.failAudit = "ok-2";
+        processor = processor(bulk);
+        processor.startProcessing();
+
+        awaitAcks(4);
+
+        assertEquals(List.of("ok-1"), List.copyOf(queue.deleted));
+        assertEquals(List.of("fail-1", "ok-2"), queue.released.stream().sorted().toList());
+    }
+
+    @Test
+    void failsBatchMessagesWithoutResult() {
+        payments.dropResult = "ok-2";
+        processor = processor(true);
+        processor.startProcessing();
+
+        awaitAcks(4);
+
+        assertEquals(List.of("ok-1"), List.copyOf(queue.deleted));
+        assertEquals(List.of("invalid-1"), List.copyOf(queue.deadLettered));
+        assertEquals(List.of("fail-1", "ok-2"), queue.released.stream().sorted().toList());
+    }
+
+    private QueueMessageProcessor processor(boolean bulk) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueueMessageProcessor processor = new QueueMessageProcessor(queue, payments,
+                new CosmosConcurrencyLimiter(8, 1, 8, 0.7, 100, 2.0, 500, registry),
+                Schedulers.boundedElastic(), registry);
+        ReflectionTestUtils.setField(processor, "mode", "adaptive");
+        ReflectionTestUtils.setField(processor, "minBackoff", 10L);
+        ReflectionTestUtils.setField(processor, "maxBackoff", 50L);
+        ReflectionTestUtils.setField(processor, "receiveConcurrency", 1);
+        ReflectionTestUtils.setField(processor, "receiveQueueDepth", 8);
+        ReflectionTestUtils.setField(processor, "laneCount", 2);
+        ReflectionTestUtils.setField(processor, "laneQueueDepth", 4);
+        ReflectionTestUtils.setField(processor, "bulkEnabled", bulk);
+        ReflectionTestUtils.setField(processor, "bulkMaxBatchSize", 4);
+        ReflectionTestUtils.setField(processor, "bulkMaxWait", 20L);
+        ReflectionTestUtils.setField(processor, "ackConcurrency", 4);
+        ReflectionTestUtils.setField(processor, "ackQueueDepth", 8);
+        return processor;
+    }
+
+    private void awaitAcks(int expected) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (queue.acks() < expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(expected, queue.acks());
+    }
+
+    private static FakeMessage message(String id) {
+        return new FakeMessage(id, new Order(new OrderId(id), new CustomerId("c-" + id.charAt(id.length() - 1)),
+                List.of(new OrderItem(new ProductId("p-1"), 1)), new Money(new BigDecimal("1.00"))));
+    }
+
+    private static final class FakeMessage implements OrderQueuePort.QueueMessage {
+        private final String id;
+        private final Order order;
+
+        private FakeMessage(String id, Order order) {
+            this.id = id;
+            this.order = order;
+        }
+
+        @Override
+        public String getMessageId() { return id; }
+
+        @Override
+        public String getPopReceipt() { return "pop"; }
+
+        @Override
+        public Order getOrder() { return order; }
+    }
+
+    private static final class FakeQueue implements OrderQueuePort {
+        private final List<FakeMessage> messages;
+        private final Queue<String> audited;
+        private final AtomicBoolean delivered = new AtomicBoolean();
+        private final Queue<String> deleted = new ConcurrentLinkedQueue<>();
+        private final Queue<String> deadLettered = new ConcurrentLinkedQueue<>();
+        private final Queue<String> released = new ConcurrentLinkedQueue<>();
+        private final Queue<String> deletedBeforeAudit = new ConcurrentLinkedQueue<>();
+
+        private FakeQueue(List<FakeMessage> messages, Queue<String> audited) {
+            this.messages = messages;
+            this.audited = audited;
+        }
+
+        int acks() {
+            return deleted.size() + deadLettered.size() + released.size();
+        }
+
+        @Override
+        public Mono<ReceivedMessages> receiveMessages() {
+            return Mono.fromSupplier(() -> delivered.compareAndSet(false, true)
+                    ? new ReceivedMessages(messages, messages.size(), false)
+                    : ReceivedMessages.empty());
+        }
+
+        @Override
+        public Mono<Void> deleteMessage(QueueMessage message) {
+            return Mono.fromRunnable(() -> {
+                if (!audited.contains(message.getMessageId())) {
+                    deletedBeforeAudit.add(message.getMessageId());
+                }
+                deleted.add(message.getMessageId());
+            });
+        }
+
+        @Override
+        public Mono<Void> deadLetter(QueueMessage message, String reason) {
+            return Mono.fromRunnable(() -> deadLettered.add(message.getMessageId()));
+        }
+
+        @Override
+        public Mono<Void> renewLease(QueueMessage message) {
+            return Mono.empty();
+        }
+
+        @Override
+        public void release(QueueMessage message) {
+            released.add(message.getMessageId());
+        }
+    }
+
+    private static final class FakePayments implements ProcessPaymentUseCase {
+        private final Queue<String> audited = new ConcurrentLinkedQueue<>();
+        private volatile String failAudit;
+        private volatile String dropResult;
+
+        @Override
+        public Mono<Transaction> processPayment(Order order) {
+            String id = order.getOrderId().getValue();
+            if (id.startsWith("invalid")) {
+                return Mono.error(new InvalidOrderException("orden invalida " + id));
+            }
+            if (id.startsWith("fail")) {
+                return Mono.error(new PaymentProcessingException("cosmos no disponible"));
+            }
+            return Mono.just(Transaction.createFromOrder(order));
+        }
+
+        @Override
+        public Flux<PaymentResult> processPayments(List<Order> orders) {
+            // dropResult se omite del lote y en su lugar llega el resultado de una orden que no se pidio
+            return Flux.fromIterable(orders)
+                    .map(order -> order.getOrderId().getValue().equals(dropResult) ? unknown(order) : order)
+                    .concatMap(order -> processPayment(order)
+                            .map(transaction -> PaymentResult.success(order, transaction))
+                            .onErrorResume(e -> Mono.just(PaymentResult.failure(order, e))));
+        }
+
+        private static Order unknown(Order order) {
+            return new Order(new OrderId("unknown-" + order.getOrderId().getValue()), order.getCustomerId(),
+                    order.getItems(), order.getTotalAmount());
+        }
+
+        @Override
+        public Mono<Void> auditPayment(Order order, Transaction transaction, Instant startedAt) {
+            String id = order.getOrderId().getValue();
+            if (id.equals(failAudit)) {
+                return Mono.error(new IllegalStateException("spool lleno"));
+            }
+            return Mono.delay(Duration.ofMillis(20))
+                    .then(Mono.fromRunnable(() -> audited.add(id)));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.entrevista_payment.infrastructure.adapter.in.web;
+
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.model.OrderItem;
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.TransactionPage;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import com.example.entrevista_payment.domain.model.valueobjects.ProductId;
+import com.example.entrevista_payment.infrastructure.adapter.in.web.dto.TransactionExportLine;
+import com.example.entrevista_payment.infrastructure.mapper.TransactionResponseMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransactionExportControllerTest {
+
+    private static final String URI = "/api/transactions/export?from=2024-03-01T00:00:00Z&to=2024-03-02T00:00:00Z"
+            + "&pageSize=2";
+
+    // Tres paginas de dos transactions; el token es el indice de la siguiente
+    private final List<Transaction> transactions = IntStream.range(0, 6)
+            .mapToObj(i -> Transaction.createFromOrder(new Order(new OrderId("o-" + i), new CustomerId("c-1"),
+                    List.of(new OrderItem(new ProductId("p-1"), 1)), new Money(new BigDecimal("1.00")))))
+            .toList();
+
+    private final WebTestClient client = WebTestClient.bindToController(new TransactionExportController(
+                    (from, to, pageSize, token) -> {
+                        int start = token != null ? Integer.parseInt(token) : 0;
+                        return Flux.range(0, (transactions.size() - start) / pageSize)
+                                .map(page -> start + page * pageSize)
+                                .map(offset -> new TransactionPage(transactions.subList(offset, offset + pageSize),
+                                        offset + pageSize < transactions.size()
+                                                ? Integer.toString(offset + pageSize) : null));
+                    },
+                    new TransactionResponseMapper()))
+            .build();
+
+    @Test
+    void defaultsToNdjsonWithoutAccept() {
+        client.get().uri(URI)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON);
+
+        client.get().uri(URI)
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON);
+    }
+
+    @Test
+    void streamsNdjsonLinesWithTokensAndResumes() {
+        List<TransactionExportLine> lines = ndjson(URI);
+        assertEquals(8, lines.size());
+        assertEquals("o-0", lines.get(0).getTransaction().getOrderId());
+        assertEquals("2", lines.get(2).getContinuationToken());
+        assertEquals("4", lines.get(5).getContinuationToken());
+
+        List<TransactionExportLine> resumed = ndjson(URI + "&continuationToken=4");
+        assertEquals(2, resumed.size());
+        assertEquals("o-4", resumed.get(0).getTransaction().getOrderId());
+    }
+
+    @Test
+    void streamsEventsAndResumesFromLastEventId() {
+        List<ServerSentEvent<String>> events = events(client.get().uri(URI));
+        assertEquals(8, events.size());
+        assertEquals("transaction", events.get(0).event());
+        assertEquals("checkpoint", events.get(2).event());
+        assertEquals("2", events.get(2).id());
+
+        List<ServerSentEvent<String>> resumed = events(client.get().uri(URI).header("Last-Event-ID", "2"));
+        assertEquals(5, resumed.size());
+        assertEquals("4", resumed.get(2).id());
+    }
+
+    private List<TransactionExportLine> ndjson(String uri) {
+        return client.get().uri(uri)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TransactionExportLine.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+    }
+
+    private List<ServerSentEvent<String>> events(WebTestClient.RequestHeadersSpec<?> request) {
+        return request.accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .getResponseBody()
+                .collectList()
+                .block();
+    }
+}
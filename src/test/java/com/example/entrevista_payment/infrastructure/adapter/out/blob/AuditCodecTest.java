@@ -0,0 +1,84 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.blob;
+
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.AuditLogDto;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.OrderDto;
+import com.example.entrevista_payment.infrastructure.config.BeanConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AuditCodecTest {
+
+    private final ObjectMapper objectMapper = new BeanConfiguration().objectMapper();
+
+    @ParameterizedTest
+    @EnumSource(AuditFormat.class)
+    void segmentRoundTrip(AuditFormat format) throws Exception {
+        for (boolean gzip : new boolean[]{false, true}) {
+            AuditCodec codec = new AuditCodec(format, gzip, objectMapper);
+            List<AuditLogDto> audits = List.of(audit("a-1"), audit("a-2"), audit("a-3"));
+
+            ByteArrayOutputStream records = new ByteArrayOutputStream();
+            for (AuditLogDto audit : audits) {
+                records.writeBytes(codec.encode(audit));
+            }
+            byte[] segment = codec.encodeSegment(records.toByteArray());
+
+            List<AuditLogDto> decoded = new AuditSegmentReader(objectMapper)
+                    .read(segment, codec.getContentType(), codec.getContentEncoding());
+
+            assertEquals(audits, decoded);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(AuditFormat.class)
+    void completeLengthDropsTruncatedTail(AuditFormat format) throws Exception {
+        AuditCodec codec = new AuditCodec(format, false, objectMapper);
+        List<AuditLogDto> audits = List.of(audit("a-1"), audit("a-2"), audit("a-3"));
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        for (AuditLogDto audit : audits) {
+            records.writeBytes(codec.encode(audit));
+        }
+        int complete = records.size();
+        byte[] last = codec.encode(audit("a-4"));
+        records.write(last, 0, last.length / 2);
+        byte[] spooled = records.toByteArray();
+
+        assertEquals(complete, codec.completeLength(spooled));
+        assertEquals(complete, codec.completeLength(Arrays.copyOf(spooled, complete)));
+        assertEquals(audits, codec.decodeSegment(Arrays.copyOf(spooled, codec.completeLength(spooled))));
+    }
+
+    private AuditLogDto audit(String auditId) {
+        OrderDto order = new OrderDto("order-" + auditId, "customer-1",
+                List.of(new OrderDto.ItemDto("product-1", 2)), new BigDecimal("25.50"));
+        return AuditLogDto.builder()
+                .auditId(auditId)
+                .timestamp(Instant.parse("2024-01-01T10:15:30Z"))
+                .eventType("PAYMENT_PROCESSED")
+                .status("SUCCESS")
+                .order(order)
+                .transaction(AuditLogDto.TransactionDto.builder()
+                        .id("tx-" + auditId)
+                        .orderId(order.getOrderId())
+                        .customerId(order.getCustomerId())
+                        .amount(new BigDecimal("25.50"))
+                        .status("COMPLETED")
+                        .timestamp(Instant.parse("2024-01-01T10:15:30Z"))
+                        .processedAt(Instant.parse("2024-01-01T10:15:31Z"))
+                        .build())
+                .processingTime(Duration.ofMillis(42))
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.blob;
+
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.AuditLogDto;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.OrderDto;
+import com.example.entrevista_payment.infrastructure.config.BeanConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditSpoolTest {
+
+    private final ObjectMapper objectMapper = new BeanConfiguration().objectMapper();
+    private final Map<AuditFormat, AuditCodec> codecs = new EnumMap<>(AuditFormat.class);
+
+    @TempDir
+    Path directory;
+
+    AuditSpoolTest() {
+        for (AuditFormat format : AuditFormat.values()) {
+            codecs.put(format, new AuditCodec(format, false, objectMapper));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(AuditFormat.class)
+    void recoversOpenSegmentWithoutTornRecord(AuditFormat format) throws Exception {
+        AuditCodec codec = codecs.get(format);
+        List<AuditLogDto> audits = List.of(audit("a-1"), audit("a-2"), audit("a-3"));
+        AuditSpool crashed = spool(format);
+        for (AuditLogDto audit : audits) {
+            crashed.append(codec.encode(audit));
+        }
+        byte[] torn = codec.encode(audit("a-4"));
+        crashed.append(Arrays.copyOf(torn, torn.length / 2));
+
+        // El spool nuevo escribe en otro formato: el recuperado conserva el suyo por el nombre
+        AuditSpool recovered = spool(AuditFormat.values()[(format.ordinal() + 1) % AuditFormat.values().length]);
+
+        List<AuditSpool.Segment> segments = recovered.sealedSegments();
+        assertEquals(1, segments.size());
+        AuditSpool.Segment segment = segments.get(0);
+        assertTrue(segment.getFile().getFileName().toString().endsWith("_unknown.sealed"));
+        assertEquals(-1, segment.getRecords());
+        assertEquals(format, segment.getFormat());
+        assertEquals(1, recovered.getSealedCount());
+        assertEquals(audits, codec.decodeSegment(Files.readAllBytes(segment.getFile())));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".open")));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(AuditFormat.class)
+    void parsesSealedSegmentName(AuditFormat format) throws Exception {
+        AuditSpool spool = spool(format);
+        Instant before = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        spool.append(codecs.get(format).encode(audit("a-1")));
+        spool.append(codecs.get(format).encode(audit("a-2")));
+        spool.sealIfNotEmpty();
+
+        AuditSpool.Segment segment = spool.sealedSegments().get(0);
+
+        assertEquals(2, segment.getRecords());
+        assertEquals(format, segment.getFormat());
+        assertEquals(36, segment.getSegmentId().length());
+        assertFalse(segment.getOpenedAt().isBefore(before));
+        assertTrue(segment.getFile().getFileName().toString().endsWith("_2.sealed"));
+    }
+
+    @Test
+    void parsesSegmentNamedBeforeFormatsWereRecorded() throws Exception {
+        Path legacy = Files.createFile(directory.resolve(
+                "segment-0001700000000000-3f1c2a9e-5b7d-4c1e-9a2b-0d6e8f4a1b2c_unknown.sealed"));
+
+        AuditSpool.Segment segment = spool(AuditFormat.JSON).sealedSegments().get(0);
+
+        assertEquals(legacy, segment.getFile());
+        assertNull(segment.getFormat());
+        assertEquals("3f1c2a9e-5b7d-4c1e-9a2b-0d6e8f4a1b2c", segment.getSegmentId());
+        assertEquals(Instant.ofEpochMilli(1700000000000L), segment.getOpenedAt());
+        assertEquals(-1, segment.getRecords());
+    }
+
+    private AuditSpool spool(AuditFormat format) throws Exception {
+        return new AuditSpool(directory, format, codecs::get, 100, 1024 * 1024, false);
+    }
+
+    private AuditLogDto audit(String auditId) {
+        OrderDto order = new OrderDto("order-" + auditId, "customer-1",
+                List.of(new OrderDto.ItemDto("product-1", 2)), new BigDecimal("25.50"));
+        return AuditLogDto.builder()
+                .auditId(auditId)
+                .timestamp(Instant.parse("2024-01-01T10:15:30Z"))
+                .eventType("PAYMENT_PROCESSED")
+                .status("SUCCESS")
+                .order(order)
+                .processingTime(Duration.ofMillis(42))
+                .build();
+    }
+}
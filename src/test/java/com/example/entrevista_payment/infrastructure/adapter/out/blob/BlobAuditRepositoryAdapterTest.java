@@ -0,0 +1,85 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.blob;
+
+import com.azure.storage.blob.BlobContainerAsyncClient;
+import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.common.policy.RequestRetryOptions;
+import com.azure.storage.common.policy.RetryPolicyType;
+import com.example.entrevista_payment.domain.model.AuditLog;
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.model.OrderItem;
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import com.example.entrevista_payment.domain.model.valueobjects.ProductId;
+import com.example.entrevista_payment.infrastructure.config.BeanConfiguration;
+import com.example.entrevista_payment.infrastructure.mapper.AuditLogMapper;
+import com.example.entrevista_payment.infrastructure.mapper.OrderMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlobAuditRepositoryAdapterTest {
+
+    private final ObjectMapper objectMapper = new BeanConfiguration().objectMapper();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @TempDir
+    Path spoolDir;
+
+    @Test
+    void failedUploadKeepsSealedSegmentOnDisk() throws Exception {
+        BlobAuditRepositoryAdapter adapter = adapter(failingContainer());
+
+        adapter.save(audit("order-1")).block(Duration.ofSeconds(5));
+        adapter.save(audit("order-2")).block(Duration.ofSeconds(5));
+        adapter.flushOnShutdown();
+
+        List<AuditSpool.Segment> segments = new AuditSpool(spoolDir, AuditFormat.JSON,
+                format -> new AuditCodec(format, false, objectMapper), 100, 1024 * 1024, false)
+                .sealedSegments();
+        assertEquals(1, segments.size());
+        assertEquals(2, segments.get(0).getRecords());
+        assertEquals(2, Files.readAllLines(segments.get(0).getFile()).size());
+        assertTrue(requests.get() > 0, "no se intento subir el segmento");
+    }
+
+    private BlobAuditRepositoryAdapter adapter(BlobContainerAsyncClient container) throws IOException {
+        return new BlobAuditRepositoryAdapter(container, true, 100, 1024 * 1024, 60000, "json", false,
+                spoolDir.toString(), false, 60000, 1, objectMapper, new AuditLogMapper(new OrderMapper()),
+                Schedulers.boundedElastic(), new SimpleMeterRegistry());
+    }
+
+    // Todo request a Blob falla sin reintentos, como si la cuenta no fuera alcanzable
+    private BlobContainerAsyncClient failingContainer() {
+        return new BlobContainerClientBuilder()
+                .endpoint("http://127.0.0.1:10000/devstoreaccount1/audits")
+                .httpClient(request -> {
+                    requests.incrementAndGet();
+                    return Mono.error(new IOException("blob no disponible"));
+                })
+                .retryOptions(new RequestRetryOptions(RetryPolicyType.FIXED, 1, (Integer) null, null, null, null))
+                .buildAsyncClient();
+    }
+
+    private static AuditLog audit(String orderId) {
+        Order order = new Order(new OrderId(orderId), new CustomerId("c-1"),
+                List.of(new OrderItem(new ProductId("p-1"), 1)), new Money(new BigDecimal("1.00")));
+        return AuditLog.createSuccessAudit(order, Transaction.createFromOrder(order), Instant.now());
+    }
+}
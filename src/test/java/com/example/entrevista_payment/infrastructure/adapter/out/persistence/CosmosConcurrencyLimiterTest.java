@@ -0,0 +1,117 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CosmosConcurrencyLimiterTest {
+
+    @Test
+    void neverExceedsLimit() {
+        CosmosConcurrencyLimiter limiter = new CosmosConcurrencyLimiter(4, 1, 4, 0.5, 100, 2.0, 1000,
+                new SimpleMeterRegistry());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        Flux.range(0, 50)
+                .flatMap(i -> limiter.execute(() -> Mono.fromRunnable(() ->
+                                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                        .then(Mono.delay(Duration.ofMillis(5)))
+                        .doOnTerminate(inFlight::decrementAndGet)))
+                .blockLast(Duration.ofSeconds(10));
+
+        assertTrue(maxInFlight.get() <= 4);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void shrinksOnThrottleAndPausesForRetryAfter() {
+        CosmosConcurrencyLimiter limiter = new CosmosConcurrencyLimiter(8, 1, 8, 0.5, 100, 2.0, 1000,
+                new SimpleMeterRegistry());
+
+        limiter.onThrottle(Duration.ofMillis(200));
+
+        assertEquals(4, limiter.getLimit());
+        long start = System.nanoTime();
+        limiter.awaitCapacity().block(Duration.ofSeconds(5));
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(150).toNanos());
+    }
+
+    @Test
+    void weighsBulkBatchesByOperationCount() {
+        CosmosConcurrencyLimiter limiter = new CosmosConcurrencyLimiter(8, 1, 8, 0.5, 100, 2.0, 1000,
+                new SimpleMeterRegistry());
+        AtomicInteger operations = new AtomicInteger();
+        AtomicInteger maxOperations = new AtomicInteger();
+
+        Flux.range(0, 20)
+                .flatMap(i -> limiter.executeMany(3, () -> Flux.range(0, 3)
+                        .doOnSubscribe(s -> maxOperations.accumulateAndGet(operations.addAndGet(3), Math::max))
+                        .delayElements(Duration.ofMillis(2))
+                        .doOnComplete(() -> operations.addAndGet(-3))))
+                .blockLast(Duration.ofSeconds(10));
+
+        assertTrue(maxOperations.get() <= 6, "operaciones en vuelo: " + maxOperations.get());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void batchLargerThanLimitRunsAlone() {
+        CosmosConcurrencyLimiter limiter = new CosmosConcurrencyLimiter(4, 1, 4, 0.5, 100, 2.0, 1000,
+                new SimpleMeterRegistry());
+
+        assertEquals(10, limiter.executeMany(10, () -> Flux.range(0, 10)).count().block(Duration.ofSeconds(5)));
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void followsWindowP99AgainstBaseline() {
+        CosmosConcurrencyLimiter limiter = new CosmosConcurrencyLimiter(8, 1, 64, 0.5, 10, 2.0, 0,
+                new SimpleMeterRegistry());
+        long millis = Duration.ofMillis(1).toNanos();
+
+        window(limiter, 10 * millis);
+        window(limiter, 10 * millis);
+        assertEquals(9, limiter.getLimit());
+
+        window(limiter, 15 * millis);
+        assertEquals(10, limiter.getLimit());
+
+        window(limiter, 50 * millis);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void cappedLimiterKeepsItsOwnBudget() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CosmosConcurrencyLimiter writes = new CosmosConcurrencyLimiter(2, 1, 2, 0.5, 100, 2.0, 1000, registry);
+        CosmosConcurrencyLimiter projector = CosmosConcurrencyLimiter.capped("customer-view", 2, registry);
+        Sinks.Empty<Void> blocked = Sinks.empty();
+
+        projector.execute(blocked::asMono).subscribe();
+        projector.execute(blocked::asMono).subscribe();
+
+        assertEquals(2, projector.getInFlight());
+        writes.awaitCapacity().block(Duration.ofSeconds(1));
+        assertEquals(2.0, registry.get("payment.cosmos.limiter.inflight").tag("limiter", "customer-view")
+                .gauge().value());
+        assertEquals(0.0, registry.get("payment.cosmos.limiter.inflight").tag("limiter", "writes")
+                .gauge().value());
+        blocked.tryEmitEmpty();
+        assertEquals(0, projector.getInFlight());
+    }
+
+    private static void window(CosmosConcurrencyLimiter limiter, long latencyNanos) {
+        for (int i = 0; i < 10; i++) {
+            limiter.onLatency(latencyNanos);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.CustomerTransactionsProjector.BatchOutcome;
+import org.junit.jupiter.api.Test;
+
+import static com.example.entrevista_payment.infrastructure.adapter.out.persistence.CustomerTransactionsProjector.outcomeOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CustomerTransactionsProjectorTest {
+
+    // En un batch fallido la operacion que falla trae su status y el resto 424 (failed dependency)
+    private static final int FAILED_DEPENDENCY = 424;
+
+    @Test
+    void projectsSuccessfulBatch() {
+        assertEquals(BatchOutcome.PROJECTED, outcomeOf(true, 201, 200, false));
+    }
+
+    @Test
+    void countsExistingRowAsDuplicateWithoutRetrying() {
+        assertEquals(BatchOutcome.DUPLICATE, outcomeOf(false, 409, FAILED_DEPENDENCY, false));
+        assertEquals(BatchOutcome.DUPLICATE, outcomeOf(false, 409, FAILED_DEPENDENCY, true));
+    }
+
+    @Test
+    void createsMissingTotalsOnce() {
+        assertEquals(BatchOutcome.CREATE_TOTALS, outcomeOf(false, FAILED_DEPENDENCY, 404, false));
+        assertEquals(BatchOutcome.FAILED, outcomeOf(false, FAILED_DEPENDENCY, 404, true));
+    }
+
+    @Test
+    void failsOnOtherStatuses() {
+        assertEquals(BatchOutcome.FAILED, outcomeOf(false, 429, FAILED_DEPENDENCY, false));
+        assertEquals(BatchOutcome.FAILED, outcomeOf(false, FAILED_DEPENDENCY, 412, false));
+        assertEquals(BatchOutcome.FAILED, outcomeOf(false, 503, 503, false));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.model.OrderItem;
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import com.example.entrevista_payment.domain.model.valueobjects.ProductId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecentTransactionCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RecentTransactionCache cache = new RecentTransactionCache(2, Duration.ofSeconds(10),
+            now::get, registry);
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        cache.put(transaction("o-1"));
+        cache.put(transaction("o-2"));
+        cache.get(new OrderId("o-1"));
+        cache.put(transaction("o-3"));
+
+        assertTrue(cache.get(new OrderId("o-1")).isPresent());
+        assertFalse(cache.get(new OrderId("o-2")).isPresent());
+        assertTrue(cache.get(new OrderId("o-3")).isPresent());
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+        cache.put(transaction("o-1"));
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertFalse(cache.get(new OrderId("o-1")).isPresent());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void countsLookupHitsAndMisses() {
+        cache.put(transaction("o-1"));
+        cache.lookup(new OrderId("o-1"));
+        cache.lookup(new OrderId("o-2"));
+
+        assertEquals(1, registry.get("payment.transaction.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1, registry.get("payment.transaction.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    private Transaction transaction(String orderId) {
+        return Transaction.createFromOrder(new Order(new OrderId(orderId), new CustomerId("c-1"),
+                List.of(new OrderItem(new ProductId("p-1"), 1)), new Money(new BigDecimal("10.00"))));
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.persistence;
+
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.domain.model.OrderItem;
+import com.example.entrevista_payment.domain.model.Transaction;
+import com.example.entrevista_payment.domain.model.TransactionAggregate;
+import com.example.entrevista_payment.domain.model.valueobjects.AggregateGranularity;
+import com.example.entrevista_payment.domain.model.valueobjects.CustomerId;
+import com.example.entrevista_payment.domain.model.valueobjects.Money;
+import com.example.entrevista_payment.domain.model.valueobjects.OrderId;
+import com.example.entrevista_payment.domain.model.valueobjects.ProductId;
+import com.example.entrevista_payment.domain.model.valueobjects.TransactionStatus;
+import com.example.entrevista_payment.infrastructure.adapter.out.memory.InMemoryAggregateCheckpointStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransactionAggregatorTest {
+
+    private static final Instant START = Instant.parse("2024-03-01T10:00:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+    private final InMemoryAggregateCheckpointStore store = new InMemoryAggregateCheckpointStore();
+    private final TransactionAggregator aggregator = new TransactionAggregator(store, 4, Duration.ofHours(1),
+            5000, clock, new SimpleMeterRegistry());
+
+    @Test
+    void checkpointsClosedMinutesAndMergesLiveBuckets() {
+        aggregator.record(transaction("o-1", "10.00"));
+        aggregator.record(transaction("o-2", "2.50"));
+        clock.now = START.plusSeconds(66);
+        aggregator.record(transaction("o-3", "1.25"));
+
+        aggregator.checkpoint(false).block();
+
+        List<TransactionAggregate> persisted = store.find(AggregateGranularity.HOUR, START, START.plusSeconds(3600))
+                .collectList().block();
+        assertEquals(1, persisted.size());
+        assertEquals(2, persisted.get(0).getCount());
+
+        List<TransactionAggregate> hour = aggregator.findAggregates(AggregateGranularity.HOUR, START,
+                START.plusSeconds(3600)).collectList().block();
+        assertEquals(1, hour.size());
+        assertEquals(TransactionStatus.COMPLETED, hour.get(0).getStatus());
+        assertEquals(3, hour.get(0).getCount());
+        assertEquals(new Money(new BigDecimal("13.75")), hour.get(0).getAmount());
+    }
+
+    @Test
+    void evictedBucketsAreStillCheckpointed() {
+        aggregator.record(transaction("o-1", "10.00"));
+        clock.now = START.plusSeconds(4 * 60);
+        aggregator.record(transaction("o-2", "5.00"));
+
+        aggregator.checkpoint(true).block();
+
+        List<TransactionAggregate> minutes = aggregator.findAggregates(AggregateGranularity.MINUTE, START,
+                START.plusSeconds(3600)).collectList().block();
+        assertEquals(2, minutes.size());
+        assertEquals(START, minutes.get(0).getBucketStart());
+        assertEquals(START.plusSeconds(4 * 60), minutes.get(1).getBucketStart());
+    }
+
+    @Test
+    void recordsAfterACheckpointGoInTheNextDelta() {
+        aggregator.record(transaction("o-1", "10.00"));
+        aggregator.checkpoint(true).block();
+        aggregator.record(transaction("o-2", "5.00"));
+
+        assertEquals(2, hourCount(aggregator.findAggregates(AggregateGranularity.HOUR, START,
+                START.plusSeconds(3600)).collectList().block()));
+
+        aggregator.stop();
+
+        List<TransactionAggregate> persisted = store.find(AggregateGranularity.HOUR, START, START.plusSeconds(3600))
+                .collectList().block();
+        assertEquals(2, hourCount(persisted));
+        assertEquals(new Money(new BigDecimal("15.00")), persisted.get(0).getAmount());
+    }
+
+    @Test
+    void retriesAFailedDeltaWithoutCountingItTwice() {
+        AtomicInteger calls = new AtomicInteger();
+        // El primer checkpoint se aplica pero la respuesta se pierde
+        AggregateCheckpointStore flaky = new AggregateCheckpointStore() {
+            @Override
+            public Mono<Void> checkpoint(String writerId, Instant minute, long sequence,
+                                         List<TransactionAggregate> aggregates) {
+                Mono<Void> applied = store.checkpoint(writerId, minute, sequence, aggregates);
+                return calls.incrementAndGet() == 1
+                        ? applied.then(Mono.error(new IllegalStateException("timeout")))
+                        : applied;
+            }
+
+            @Override
+            public Flux<TransactionAggregate> find(AggregateGranularity granularity, Instant from, Instant to) {
+                return store.find(granularity, from, to);
+            }
+        };
+        TransactionAggregator retrying = new TransactionAggregator(flaky, 4, Duration.ofHours(1), 5000, clock,
+                new SimpleMeterRegistry());
+
+        retrying.record(transaction("o-1", "10.00"));
+        retrying.checkpoint(true).block();
+        retrying.record(transaction("o-2", "5.00"));
+        retrying.checkpoint(true).block();
+        retrying.checkpoint(true).block();
+
+        assertEquals(3, calls.get());
+        assertEquals(2, hourCount(store.find(AggregateGranularity.HOUR, START, START.plusSeconds(3600))
+                .collectList().block()));
+        assertEquals(2, hourCount(retrying.findAggregates(AggregateGranularity.HOUR, START,
+                START.plusSeconds(3600)).collectList().block()));
+    }
+
+    private static long hourCount(List<TransactionAggregate> aggregates) {
+        return aggregates.stream().mapToLong(TransactionAggregate::getCount).sum();
+    }
+
+    private Transaction transaction(String orderId, String amount) {
+        return Transaction.createFromOrder(new Order(new OrderId(orderId), new CustomerId("c-1"),
+                List.of(new OrderItem(new ProductId("p-1"), 1)), new Money(new BigDecimal(amount))));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
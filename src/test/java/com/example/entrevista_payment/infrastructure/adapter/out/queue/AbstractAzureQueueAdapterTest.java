@@ -0,0 +1,121 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.azure.core.util.BinaryData;
+import com.azure.storage.queue.models.QueueMessageItem;
+import com.azure.storage.queue.models.UpdateMessageResult;
+import com.example.entrevista_payment.domain.port.out.OrderQueuePort;
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.CosmosConcurrencyLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AbstractAzureQueueAdapterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VirtualTimeScheduler scheduler = startingNow();
+    private final QueueLeaseRenewer leaseRenewer = new QueueLeaseRenewer(30000, 10000, 1000, 300000, scheduler,
+            meterRegistry);
+    private final QueuePrefetcher prefetcher = new QueuePrefetcher(true, 1, 64, 5000, 500, 20, 80,
+            CosmosConcurrencyLimiter.capped("writes", 8, meterRegistry), meterRegistry);
+    private final FakeQueueAdapter adapter = new FakeQueueAdapter();
+
+    @AfterEach
+    void stop() {
+        prefetcher.stop();
+        leaseRenewer.stop();
+        scheduler.dispose();
+    }
+
+    @Test
+    void renewsBufferedMessagesInsteadOfReturningThem() throws Exception {
+        OrderQueuePort.ReceivedMessages first = adapter.receiveMessages().block(Duration.ofSeconds(1));
+        Thread.sleep(200);
+
+        assertEquals(32, first.getMessages().size());
+        assertEquals(32, prefetcher.getBuffered());
+
+        // 25 s despues a todos les quedan 5 s: se renuevan tambien los que siguen en el buffer
+        scheduler.advanceTimeBy(Duration.ofSeconds(25));
+        OrderQueuePort.ReceivedMessages second = adapter.receiveMessages().block(Duration.ofSeconds(1));
+
+        assertEquals(64, adapter.visibility.size());
+        assertTrue(adapter.visibility.values().stream().allMatch(Duration.ofSeconds(30)::equals));
+        assertEquals(32, second.getMessages().size());
+        assertTrue(second.getMessages().stream()
+                .allMatch(message -> ((AzureQueueMessage) message).getPopReceipt().equals("renewed")));
+        assertEquals(0.0, meterRegistry.get("payment.queue.prefetch.expired").counter().count());
+    }
+
+    private static VirtualTimeScheduler startingNow() {
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+        scheduler.advanceTimeTo(Instant.now());
+        return scheduler;
+    }
+
+    private Instant now() {
+        return Instant.ofEpochMilli(scheduler.now(TimeUnit.MILLISECONDS));
+    }
+
+    private class FakeQueueAdapter extends AbstractAzureQueueAdapter {
+        private final AtomicInteger receives = new AtomicInteger();
+        private final Map<String, Duration> visibility = new ConcurrentHashMap<>();
+
+        private FakeQueueAdapter() {
+            super(List.of("orders"), payload -> null, leaseRenewer, prefetcher,
+                    new PoisonMessageWriter(new ObjectMapper(), 1024), 5, meterRegistry);
+        }
+
+        @Override
+        protected Flux<QueueMessageItem> receiveItems(String queueName, int maxMessages,
+                                                      Duration visibilityTimeout) {
+            int call = receives.getAndIncrement();
+            if (call > 1) {
+                return Flux.empty();
+            }
+            OffsetDateTime visibleUntil = now().plus(visibilityTimeout).atOffset(ZoneOffset.UTC);
+            return Flux.fromStream(IntStream.range(0, maxMessages)
+                    .mapToObj(i -> new QueueMessageItem()
+                            .setMessageId("m-" + call + "-" + i)
+                            .setPopReceipt("pop")
+                            .setTimeNextVisible(visibleUntil)
+                            .setDequeueCount(1)
+                            .setBody(BinaryData.fromString("{}"))));
+        }
+
+        @Override
+        protected Mono<UpdateMessageResult> updateVisibility(String queueName, String messageId,
+                                                             String popReceipt, Duration visibilityTimeout) {
+            visibility.put(messageId, visibilityTimeout);
+            return Mono.just(new UpdateMessageResult("renewed",
+                    now().plus(visibilityTimeout).atOffset(ZoneOffset.UTC)));
+        }
+
+        @Override
+        protected Mono<Void> delete(String queueName, String messageId, String popReceipt) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> sendToPoison(String messageText) {
+            return Mono.empty();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.entity.PoisonMessageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PoisonMessageWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final PoisonMessageWriter writer = new PoisonMessageWriter(objectMapper, 1024);
+
+    @Test
+    void keepsSmallPayloadsWhole() throws Exception {
+        PoisonMessageDto poison = read(writer.write(message("{\"orderId\":\"o-1\"}"), "invalido"));
+
+        assertEquals("{\"orderId\":\"o-1\"}", poison.getMessageText());
+        assertFalse(poison.isMessageTextTruncated());
+    }
+
+    @Test
+    void truncatesOversizedPayloadsOnCharacterBoundaries() throws Exception {
+        String text = "{\"note\":\"" + "ñ\"€😀".repeat(2000) + "\"}";
+
+        String json = writer.write(message(text), "invalido");
+        PoisonMessageDto poison = read(json);
+
+        assertTrue(json.getBytes(StandardCharsets.UTF_8).length <= 1024);
+        assertTrue(poison.isMessageTextTruncated());
+        assertTrue(text.startsWith(poison.getMessageText()));
+        assertFalse(Character.isHighSurrogate(poison.getMessageText().charAt(poison.getMessageText().length() - 1)));
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, poison.getMessageTextBytes());
+    }
+
+    private PoisonMessageDto read(String json) throws Exception {
+        return objectMapper.readValue(json, PoisonMessageDto.class);
+    }
+
+    private static AzureQueueMessage message(String text) {
+        return new AzureQueueMessage(null, "m-1", "pop-0", Instant.now(), text, 6, null);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueueLeaseRenewerTest {
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private final QueueLeaseRenewer renewer = new QueueLeaseRenewer(1000, 200, 20, 60000, scheduler,
+            new SimpleMeterRegistry());
+
+    @AfterEach
+    void stop() {
+        renewer.stop();
+        scheduler.dispose();
+    }
+
+    @Test
+    void renewsExpiringMessagesUntilReleased() {
+        AzureQueueMessage message = new AzureQueueMessage(null, "m-1", "pop-0", now().plusMillis(100),
+                "{}", 1, null);
+        AtomicInteger renewals = new AtomicInteger();
+
+        renewer.track(message, m -> Mono.fromRunnable(() -> m.renewed(
+                "pop-" + renewals.incrementAndGet(), now().plusMillis(250))));
+
+        // Vence a los 100 ms y cada renovacion da 250 ms: con 200 ms de anticipo se renueva
+        // en los ticks 20, 80, 140, ... hasta 380
+        scheduler.advanceTimeBy(Duration.ofMillis(400));
+        renewer.release(message);
+        message.getPendingRenewal().block(Duration.ofSeconds(1));
+        scheduler.advanceTimeBy(Duration.ofMillis(300));
+
+        assertEquals(7, renewals.get());
+        assertEquals("pop-7", message.getPopReceipt());
+    }
+
+    @Test
+    void leavesMessagesAloneUntilTheyNearExpiry() {
+        AzureQueueMessage message = new AzureQueueMessage(null, "m-1", "pop-0", now().plusMillis(500),
+                "{}", 1, null);
+        AtomicInteger renewals = new AtomicInteger();
+        renewer.track(message, m -> Mono.fromRunnable(renewals::incrementAndGet));
+
+        scheduler.advanceTimeBy(Duration.ofMillis(280));
+        assertEquals(0, renewals.get());
+
+        scheduler.advanceTimeBy(Duration.ofMillis(20));
+        assertEquals(1, renewals.get());
+    }
+
+    @Test
+    void releasesMessagesPastMaxLease() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        QueueLeaseRenewer capped = new QueueLeaseRenewer(1000, 200, 20, 1000, scheduler, meterRegistry);
+        AzureQueueMessage message = new AzureQueueMessage(null, "m-1", "pop-0", now().plusMillis(100),
+                "{}", 1, null);
+        AtomicInteger renewals = new AtomicInteger();
+        capped.track(message, m -> Mono.fromRunnable(() -> {
+            renewals.incrementAndGet();
+            m.renewed("pop", now().plusMillis(250));
+        }));
+
+        scheduler.advanceTimeBy(Duration.ofMillis(1000));
+        int beforeMaxLease = renewals.get();
+        scheduler.advanceTimeBy(Duration.ofMillis(1000));
+        capped.stop();
+
+        assertTrue(beforeMaxLease > 0);
+        assertEquals(beforeMaxLease, renewals.get());
+        assertEquals(0.0, meterRegistry.get("payment.queue.lease.inflight").gauge().value());
+    }
+
+    private Instant now() {
+        return Instant.ofEpochMilli(scheduler.now(TimeUnit.MILLISECONDS));
+    }
+}
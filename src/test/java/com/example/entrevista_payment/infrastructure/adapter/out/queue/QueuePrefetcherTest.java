@@ -0,0 +1,111 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.example.entrevista_payment.infrastructure.adapter.out.persistence.CosmosConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueuePrefetcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CosmosConcurrencyLimiter limiter = CosmosConcurrencyLimiter.capped("writes", 8, meterRegistry);
+    private final QueuePrefetcher prefetcher = new QueuePrefetcher(true, 3, 64, 1000, 200, 20, 80, limiter,
+            meterRegistry);
+    private final List<QueueShard> shards = QueueShard.fromSpecs(List.of("orders"),
+            QueuePrefetcher.MAX_RECEIVE, meterRegistry);
+    private final AtomicInteger receives = new AtomicInteger();
+    private final Set<String> returned = ConcurrentHashMap.newKeySet();
+
+    @AfterEach
+    void stop() {
+        prefetcher.stop();
+    }
+
+    @Test
+    void stopsReceivingWhenBufferIsFull() throws Exception {
+        prefetcher.start(shards, shard -> batch(shard, call -> Instant.now().plusSeconds(30)), this::makeVisible);
+
+        Thread.sleep(200);
+        int afterFill = receives.get();
+        Thread.sleep(200);
+
+        assertEquals(64, prefetcher.getBuffered());
+        assertEquals(2, afterFill);
+        assertEquals(afterFill, receives.get());
+
+        List<AzureQueueMessage> drained = prefetcher.drain(32).collectList().block(Duration.ofSeconds(1));
+        Thread.sleep(200);
+
+        assertEquals(32, drained.size());
+        assertEquals(3, receives.get());
+        assertEquals(64, prefetcher.getBuffered());
+    }
+
+    @Test
+    void returnsMessagesCloseToVisibilityExpiry() throws Exception {
+        prefetcher.start(shards, shard -> batch(shard, call -> call == 0
+                ? Instant.now().plusMillis(500)
+                : Instant.now().plusSeconds(30)), this::makeVisible);
+        Thread.sleep(200);
+
+        List<AzureQueueMessage> drained = prefetcher.drain(64).collectList().block(Duration.ofSeconds(1));
+        Thread.sleep(100);
+
+        assertEquals(32, drained.size());
+        assertEquals(32, returned.size());
+        assertTrue(drained.stream().noneMatch(message -> returned.contains(message.getMessageId())));
+        assertEquals(32.0, meterRegistry.get("payment.queue.prefetch.expired").counter().count());
+    }
+
+    @Test
+    void backsOffWhileQueueIsEmpty() throws Exception {
+        prefetcher.start(shards, shard -> {
+            receives.incrementAndGet();
+            return Mono.just(ShardBatch.empty(shard));
+        }, this::makeVisible);
+
+        Thread.sleep(600);
+
+        // Con pausa fija de 20 ms serian unas 90 lecturas; con backoff 20..80 ms no llegan a 30
+        assertTrue(receives.get() >= 3 && receives.get() <= 30, "lecturas: " + receives.get());
+    }
+
+    @Test
+    void waitsForWriteCapacityBeforeReceiving() throws Exception {
+        limiter.onThrottle(Duration.ofMillis(300));
+        prefetcher.start(shards, shard -> batch(shard, call -> Instant.now().plusSeconds(30)), this::makeVisible);
+
+        Thread.sleep(150);
+        assertEquals(0, receives.get());
+
+        Thread.sleep(400);
+        assertEquals(2, receives.get());
+    }
+
+    private Mono<ShardBatch> batch(QueueShard shard, IntFunction<Instant> visibleUntilByCall) {
+        int call = receives.getAndIncrement();
+        Instant visibleUntil = visibleUntilByCall.apply(call);
+        List<AzureQueueMessage> messages = IntStream.range(0, shard.getMaxMessages())
+                .mapToObj(i -> new AzureQueueMessage(shard, "m-" + call + "-" + i, "pop", visibleUntil,
+                        "{}", 1, null))
+                .toList();
+        return Mono.just(new ShardBatch(shard, messages, messages.size()));
+    }
+
+    private Mono<Void> makeVisible(AzureQueueMessage message) {
+        return Mono.fromRunnable(() -> returned.add(message.getMessageId()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.entrevista_payment.infrastructure.adapter.out.queue;
+
+import com.example.entrevista_payment.domain.exception.InvalidOrderException;
+import com.example.entrevista_payment.domain.model.Order;
+import com.example.entrevista_payment.infrastructure.config.BeanConfiguration;
+import com.example.entrevista_payment.infrastructure.mapper.OrderMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StreamingOrderPayloadParserTest {
+
+    private static final String PAYLOAD = "{\"orderId\":\"order-1\",\"customerId\":\"customer-1\","
+            + "\"channel\":{\"name\":\"web\"},"
+            + "\"items\":[{\"productId\":\"p-1\",\"quantity\":2},{\"productId\":\"p-2\",\"quantity\":1}],"
+            + "\"totalAmount\":59.97}";
+
+    private final ObjectMapper objectMapper = new BeanConfiguration().objectMapper();
+    private final StreamingOrderPayloadParser streaming = new StreamingOrderPayloadParser(objectMapper);
+    private final DtoOrderPayloadParser dto = new DtoOrderPayloadParser(objectMapper, new OrderMapper());
+
+    @Test
+    void matchesDtoPath() throws Exception {
+        Order expected = dto.parse(PAYLOAD);
+        Order actual = streaming.parse(PAYLOAD);
+
+        assertEquals(expected.getOrderId(), actual.getOrderId());
+        assertEquals(expected.getCustomerId(), actual.getCustomerId());
+        assertEquals(expected.getItems(), actual.getItems());
+        assertEquals(expected.getTotalAmount(), actual.getTotalAmount());
+    }
+
+    @Test
+    void rejectsWrongTypes() {
+        assertThrows(InvalidOrderException.class,
+                () -> streaming.parse(PAYLOAD.replace("\"quantity\":2", "\"quantity\":\"2\"")));
+        assertThrows(InvalidOrderException.class,
+                () -> streaming.parse(PAYLOAD.replace("59.97", "\"59.97\"")));
+    }
+}